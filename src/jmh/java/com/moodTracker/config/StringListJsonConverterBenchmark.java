@@ -0,0 +1,47 @@
+package com.moodTracker.config;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringListJsonConverterBenchmark {
+
+    @Param({"5", "50"})
+    public int size;
+
+    private final StringListJsonConverter converter = new StringListJsonConverter();
+    private List<String> suggestions;
+    private String column;
+
+    @Setup
+    public void setup() {
+        suggestions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            suggestions.add("Take a 10–15 minute walk after work, suggestion \"" + i + "\"");
+        }
+        column = converter.convertToDatabaseColumn(suggestions);
+    }
+
+    @Benchmark
+    public String toColumn() {
+        return converter.convertToDatabaseColumn(suggestions);
+    }
+
+    @Benchmark
+    public List<String> fromColumn() {
+        return converter.convertToEntityAttribute(column);
+    }
+
+    @Benchmark
+    public List<String> roundTrip() {
+        return converter.convertToEntityAttribute(converter.convertToDatabaseColumn(suggestions));
+    }
+}
@@ -0,0 +1,48 @@
+package com.moodTracker.mapper;
+
+import com.moodTracker.dto.MoodEntryDto;
+import com.moodTracker.entity.MoodEntry;
+import com.moodTracker.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoodEntryMapperBenchmark {
+
+    @Param({"30", "1000", "100000"})
+    public int size;
+
+    private final MoodEntryMapper mapper = new MoodEntryMapperImpl();
+    private List<MoodEntry> entries;
+
+    @Setup
+    public void setup() {
+        User user = new User();
+        user.setId(1L);
+        LocalDate today = LocalDate.now();
+        entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(MoodEntry.builder()
+                    .id((long) i)
+                    .user(user)
+                    .entryDate(today.minusDays(i))
+                    .moodScore(1 + i % 5)
+                    .note("Walk and hanging out with friends #" + i)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<MoodEntryDto> toDto() {
+        return mapper.toDto(entries);
+    }
+}
@@ -0,0 +1,137 @@
+package com.moodTracker.repository;
+
+import com.moodTracker.MoodTrackerApplication;
+import com.moodTracker.dto.MoodEntryDto;
+import com.moodTracker.dto.MoodEntryResponse;
+import com.moodTracker.entity.MoodEntry;
+import com.moodTracker.mapper.MoodEntryMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mood reads on H2 (the load-test schema): managed entities copied into DTOs, as the read paths did before,
+ * against JPQL constructor projections in a read-only transaction. Run with the gc profiler (the jmh profile's
+ * default) and compare {@code gc.alloc.rate.norm}, the bytes allocated per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoodEntryReadBenchmark {
+
+    private static final int DAYS = 365;
+    private static final int PAGE_SIZE = 90;
+
+    private ConfigurableApplicationContext context;
+    private MoodEntryRepository repository;
+    private MoodEntryMapper mapper;
+    private EntityManager em;
+    private TransactionTemplate tx;
+    private TransactionTemplate readOnlyTx;
+    private long userId;
+    private LocalDate today;
+    private Pageable page;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(MoodTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("loadtest")
+                .properties("openrouter.base-url=http://localhost:9", "logging.level.root=WARN")
+                .run();
+        repository = context.getBean(MoodEntryRepository.class);
+        mapper = context.getBean(MoodEntryMapper.class);
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        var transactionManager = context.getBean(PlatformTransactionManager.class);
+        tx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO users (first_name, last_name, email, password) VALUES ('Bench', 'Mark', 'bench@example.com', 'x')");
+        userId = jdbc.queryForObject("SELECT id FROM users WHERE email = 'bench@example.com'", Long.class);
+        today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(DAYS);
+        for (int i = 0; i < DAYS; i++) {
+            rows.add(new Object[]{userId, Date.valueOf(today.minusDays(i)), 1 + i % 5, "Walk and hanging out with friends #" + i});
+        }
+        jdbc.batchUpdate("INSERT INTO mood_entries (user_id, entry_date, mood_score, note) VALUES (?, ?, ?, ?)", rows);
+        page = PageRequest.of(0, PAGE_SIZE, Sort.by("entryDate").descending());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MoodEntryDto> windowEntities() {
+        return tx.execute(s -> mapper.toDto(em.createQuery("""
+                        select e from MoodEntry e
+                        where e.user.id = :userId and e.entryDate between :from and :to
+                        order by e.entryDate desc
+                        """, MoodEntry.class)
+                .setParameter("userId", userId)
+                .setParameter("from", today.minusDays(30))
+                .setParameter("to", today)
+                .getResultList()));
+    }
+
+    @Benchmark
+    public List<MoodEntryDto> windowProjection() {
+        return readOnlyTx.execute(s -> repository.findDtosDesc(userId, today.minusDays(30), today));
+    }
+
+    @Benchmark
+    public Page<MoodEntryResponse> rangePageEntities() {
+        return tx.execute(s -> {
+            List<MoodEntryResponse> content = em.createQuery("""
+                            select e from MoodEntry e
+                            where e.user.id = :userId and e.entryDate between :start and :end
+                            order by e.entryDate desc
+                            """, MoodEntry.class)
+                    .setParameter("userId", userId)
+                    .setParameter("start", today.minusDays(DAYS))
+                    .setParameter("end", today)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultStream()
+                    .map(e -> new MoodEntryResponse(e.getId(), e.getEntryDate().toString(), e.getMoodScore(), e.getNote()))
+                    .toList();
+            long total = em.createQuery("""
+                            select count(e) from MoodEntry e
+                            where e.user.id = :userId and e.entryDate between :start and :end
+                            """, Long.class)
+                    .setParameter("userId", userId)
+                    .setParameter("start", today.minusDays(DAYS))
+                    .setParameter("end", today)
+                    .getSingleResult();
+            return new PageImpl<>(content, page, total);
+        });
+    }
+
+    @Benchmark
+    public Page<MoodEntryResponse> rangePageProjection() {
+        return readOnlyTx.execute(s -> repository.findResponsePage(userId, today.minusDays(DAYS), today, page));
+    }
+}
@@ -0,0 +1,68 @@
+package com.moodTracker.security;
+
+import com.moodTracker.entity.Role;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "bW9vZC10cmFja2VyLWJlbmNobWFyay1zZWNyZXQta2V5LTI1Ni1iaXRzLWxvbmc=";
+
+    private JwtService cached;
+    private JwtService uncached;
+    private AuthenticatedUser user;
+    private String token;
+    private Claims claims;
+
+    @Setup
+    public void setup() {
+        cached = jwtService(10_000);
+        uncached = jwtService(0); // a zero bound never caches, so every parse verifies the signature
+        user = new AuthenticatedUser(42L, "bench@example.com", Role.USER, true);
+        token = cached.generateToken(user);
+        claims = cached.parseClaims(token);
+    }
+
+    @Benchmark
+    public String generate() {
+        return cached.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parseCached() {
+        return cached.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims parseUncached() {
+        return uncached.parseClaims(token);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return cached.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public AuthenticatedUser toPrincipal() {
+        return cached.toPrincipal(claims);
+    }
+
+    private static JwtService jwtService(int cacheSize) {
+        var service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(service, "claimsCacheMaxSize", cacheSize);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,53 @@
+package com.moodTracker.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBlacklistServiceBenchmark {
+
+    private static final int SAMPLES = 4096;
+
+    @Param({"1000", "100000", "1000000"})
+    public int revoked;
+
+    private TokenBlacklistService service;
+    private String[] revokedJtis;
+    private String[] freshJtis;
+    private int i;
+
+    @Setup
+    public void setup() {
+        service = new TokenBlacklistService(new InMemoryRevocationStore(), revoked);
+        var exp = Instant.now().plusSeconds(3600);
+        revokedJtis = new String[SAMPLES];
+        for (int n = 0; n < revoked; n++) {
+            String jti = UUID.randomUUID().toString();
+            service.revoke("token-" + n, jti, exp);
+            if (n < SAMPLES) revokedJtis[n] = jti;
+        }
+        if (revoked < SAMPLES) {
+            for (int n = revoked; n < SAMPLES; n++) revokedJtis[n] = revokedJtis[n % revoked];
+        }
+        freshJtis = new String[SAMPLES];
+        for (int n = 0; n < SAMPLES; n++) freshJtis[n] = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public boolean isRevokedMiss() {
+        return service.isRevoked("unused", freshJtis[i++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public boolean isRevokedHit() {
+        return service.isRevoked("unused", revokedJtis[i++ & (SAMPLES - 1)]);
+    }
+}
@@ -0,0 +1,116 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodTracker.dto.MoodEntryDto;
+import com.moodTracker.entity.AiAnalysis;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AiPromptsBenchmark {
+
+    /** analyze sends the last 30 entries; 365 shows how the payload join scales. */
+    @Param({"30", "365"})
+    public int entries;
+
+    private final ObjectMapper om = new ObjectMapper();
+    private List<MoodEntryDto> logs;
+    private AiAnalysis analysis;
+    private String completionBody;
+    private String fencedContent;
+
+    @Setup
+    public void setup() throws Exception {
+        LocalDate today = LocalDate.now();
+        logs = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            logs.add(new MoodEntryDto((long) i, 1L, today.minusDays(i), 1 + i % 5,
+                    "Stress at work, not enough \"sleep\" – day " + i));
+        }
+
+        analysis = AiAnalysis.builder()
+                .average(BigDecimal.valueOf(3.4))
+                .summary("Mood fluctuates; sleep and physical activity improve overall tone.")
+                .suggestions(List.of(
+                        "Set a fixed bedtime for 7–8 hours of sleep",
+                        "Take a 10–15 minute walk after work",
+                        "Record daily stress triggers and responses",
+                        "Schedule a brief social activity twice a week",
+                        "Practice a 5-minute breathing exercise each morning"))
+                .build();
+
+        fencedContent = """
+                ```json
+                {
+                  "summary": "Mood fluctuates; sleep and physical activity improve overall tone.",
+                  "suggestions": [
+                    "Set a fixed bedtime for 7–8 hours of sleep",
+                    "Take a 10–15 minute walk after work",
+                    "Record daily stress triggers and responses"
+                  ]
+                }
+                ```""";
+        // shape of a real OpenRouter chat completion, including the usage block and provider metadata
+        completionBody = om.writeValueAsString(Map.of(
+                "id", "gen-1723456789-abcdefghijklmnop",
+                "provider", "Chutes",
+                "model", "meta-llama/llama-3.1-8b-instruct:free",
+                "object", "chat.completion",
+                "created", 1723456789,
+                "choices", List.of(Map.of(
+                        "finish_reason", "stop",
+                        "native_finish_reason", "stop",
+                        "index", 0,
+                        "message", Map.of("role", "assistant", "content", fencedContent))),
+                "usage", Map.of("prompt_tokens", 812, "completion_tokens", 164, "total_tokens", 976)));
+    }
+
+    @Benchmark
+    public String analyzePrompt() {
+        return AiPrompts.analyzePrompt(logs);
+    }
+
+    /** Baseline for the reduce-based payload join in analyzePrompt. */
+    @Benchmark
+    public String analyzePayloadJoining() {
+        return logs.stream()
+                .map(e -> String.format(Locale.ROOT,
+                        "{\"date\":\"%s\",\"rating\":%d,\"note\":%s}",
+                        e.getEntryDate(), e.getMoodScore(),
+                        e.getNote() == null ? "null" : "\"" + e.getNote().replace("\"", "\\\"") + "\""))
+                .collect(Collectors.joining(",\n"));
+    }
+
+    @Benchmark
+    public String planPrompt() {
+        return AiPrompts.planPrompt(analysis);
+    }
+
+    @Benchmark
+    public String extractAssistantContent() {
+        return AiPrompts.extractAssistantContent(om, completionBody);
+    }
+
+    @Benchmark
+    public String extractJson() {
+        return AiPrompts.extractJson(fencedContent);
+    }
+
+    @Benchmark
+    public String parseCompletion() {
+        return AiPrompts.extractJson(AiPrompts.extractAssistantContent(om, completionBody));
+    }
+}
@@ -0,0 +1,31 @@
+package com.moodTracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Runs AI jobs off the servlet threads. Bounded on both threads and queue, so a burst is
+     * rejected instead of piling up; the work is blocking I/O, so the threads are virtual.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService aiExecutor(@Value("${ai.executor.max-concurrency:32}") int maxConcurrency,
+                                      @Value("${ai.executor.queue-capacity:200}") int queueCapacity) {
+        var executor = new ThreadPoolExecutor(
+                maxConcurrency, maxConcurrency,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("ai-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
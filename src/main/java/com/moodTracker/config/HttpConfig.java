@@ -4,22 +4,100 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.ObservationView;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
 import org.springframework.web.client.RestTemplate;
 
+import javax.net.ssl.SSLSocket;
 import java.time.Duration;
 
 @Configuration
 public class HttpConfig {
 
+    /**
+     * One keep-alive pool for all OpenRouter traffic, so AI calls reuse TLS connections
+     * instead of handshaking per request.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager aiConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${openrouter.http.max-connections:50}") int maxConnections,
+            @Value("${openrouter.http.max-connections-per-route:20}") int maxPerRoute,
+            @Value("${openrouter.http.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${openrouter.http.connection-ttl:5m}") Duration connectionTtl) {
+
+        Counter handshakes = meterRegistry.counter("openrouter.http.tls.handshakes");
+        var tlsStrategy = new DefaultClientTlsStrategy(SSLContexts.createDefault()) {
+            @Override
+            protected void initializeSocket(SSLSocket socket) {
+                socket.addHandshakeCompletedListener(e -> handshakes.increment());
+            }
+        };
+
+        PoolingHttpClientConnectionManager cm = PoolingHttpClientConnectionManagerBuilder.create()
+                .setTlsSocketStrategy(tlsStrategy)
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTtl))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+
+        Gauge.builder("openrouter.http.pool.leased", cm, c -> c.getTotalStats().getLeased()).register(meterRegistry);
+        Gauge.builder("openrouter.http.pool.available", cm, c -> c.getTotalStats().getAvailable()).register(meterRegistry);
+        Gauge.builder("openrouter.http.pool.pending", cm, c -> c.getTotalStats().getPending()).register(meterRegistry);
+        Gauge.builder("openrouter.http.pool.max", cm, c -> c.getTotalStats().getMax()).register(meterRegistry);
+        return cm;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient aiHttpClient(PoolingHttpClientConnectionManager aiConnectionManager,
+                                            @Value("${openrouter.http.idle-eviction:30s}") Duration idleEviction) {
+        return HttpClients.custom()
+                .setConnectionManager(aiConnectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .build();
+    }
+
+    /** Short JSON analysis calls. */
     @Bean
-    public RestTemplate restTemplate() {
-        var f = new SimpleClientHttpRequestFactory();
-        f.setConnectTimeout((int) Duration.ofSeconds(5).toMillis());
-        f.setReadTimeout((int) Duration.ofSeconds(20).toMillis());
-        return new RestTemplate(f);
+    public RestTemplate aiAnalyzeRestTemplate(CloseableHttpClient aiHttpClient,
+                                              ObservationRegistry observationRegistry,
+                                              @Value("${openrouter.http.pool-acquire-timeout:2s}") Duration acquireTimeout,
+                                              @Value("${openrouter.http.analyze.read-timeout:20s}") Duration readTimeout) {
+        return restTemplate(aiHttpClient, observationRegistry, acquireTimeout, readTimeout);
+    }
+
+    /** Long plain-text plan completions (up to 1100 tokens). */
+    @Bean
+    public RestTemplate aiPlanRestTemplate(CloseableHttpClient aiHttpClient,
+                                           ObservationRegistry observationRegistry,
+                                           @Value("${openrouter.http.pool-acquire-timeout:2s}") Duration acquireTimeout,
+                                           @Value("${openrouter.http.plan.read-timeout:45s}") Duration readTimeout) {
+        return restTemplate(aiHttpClient, observationRegistry, acquireTimeout, readTimeout);
     }
 
     @Bean
@@ -29,4 +107,34 @@ public class HttpConfig {
                 .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
                 .build();
     }
+
+    private static RestTemplate restTemplate(CloseableHttpClient httpClient, ObservationRegistry observationRegistry,
+                                             Duration acquireTimeout, Duration readTimeout) {
+        var f = new HttpComponentsClientHttpRequestFactory(httpClient);
+        f.setConnectionRequestTimeout(acquireTimeout);
+        f.setReadTimeout(readTimeout);
+        var restTemplate = new RestTemplate(f);
+        restTemplate.setObservationRegistry(observationRegistry);
+        restTemplate.setObservationConvention(new OpenRouterAttemptConvention());
+        return restTemplate;
+    }
+
+    /**
+     * Copies model and attempt index from the enclosing openrouter.attempt observation onto the exchange span.
+     * High cardinality only, so the http.client.requests meter keeps its usual tags.
+     */
+    static class OpenRouterAttemptConvention extends DefaultClientRequestObservationConvention {
+        @Override
+        public KeyValues getHighCardinalityKeyValues(ClientRequestObservationContext context) {
+            KeyValues keyValues = super.getHighCardinalityKeyValues(context);
+            ObservationView parent = context.getParentObservation();
+            if (parent == null || !"openrouter.attempt".equals(parent.getContextView().getName())) return keyValues;
+
+            KeyValue model = parent.getContextView().getLowCardinalityKeyValue("model");
+            KeyValue attempt = parent.getContextView().getHighCardinalityKeyValue("attempt");
+            if (model != null) keyValues = keyValues.and("openrouter.model", model.getValue());
+            if (attempt != null) keyValues = keyValues.and("openrouter.attempt", attempt.getValue());
+            return keyValues;
+        }
+    }
 }
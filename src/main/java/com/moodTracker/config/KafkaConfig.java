@@ -0,0 +1,62 @@
+package com.moodTracker.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Duration;
+
+@Configuration
+public class KafkaConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+    NewTopic moodEntryEventsTopic(@Value("${outbox.topic:mood-entry-events}") String topic,
+                                  @Value("${outbox.topic.partitions:6}") int partitions,
+                                  @Value("${outbox.topic.replicas:1}") short replicas) {
+        return TopicBuilder.name(topic).partitions(partitions).replicas(replicas).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ingest.enabled", havingValue = "true")
+    NewTopic moodIngestDeadLetterTopic(@Value("${ingest.dlt-topic:mood-readings.DLT}") String topic,
+                                       @Value("${ingest.dlt-topic.partitions:3}") int partitions,
+                                       @Value("${ingest.dlt-topic.replicas:1}") short replicas) {
+        return TopicBuilder.name(topic).partitions(partitions).replicas(replicas).build();
+    }
+
+    /**
+     * Batch listener factory for mood ingestion. Invalid records are dead-lettered by the listener itself;
+     * this error handler covers whole-batch failures (database down) by retrying with backoff, and only
+     * after {@code ingest.retry.max-elapsed} sends the batch to the dead-letter topic.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ingest.enabled", havingValue = "true")
+    ConcurrentKafkaListenerContainerFactory<String, String> moodIngestContainerFactory(
+            ConsumerFactory<String, String> consumerFactory,
+            KafkaTemplate<String, String> kafkaTemplate,
+            @Value("${ingest.dlt-topic:mood-readings.DLT}") String deadLetterTopic,
+            @Value("${ingest.retry.max-elapsed:10m}") Duration maxElapsed) {
+        var backOff = new ExponentialBackOff(500, 2.0);
+        backOff.setMaxInterval(30_000);
+        backOff.setMaxElapsedTime(maxElapsed.toMillis());
+        var recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, e) -> new TopicPartition(deadLetterTopic, -1));
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, String>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(recoverer, backOff));
+        return factory;
+    }
+}
@@ -44,6 +44,10 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         // 3) public auth rute
                         .requestMatchers("/api/auth/**").permitAll()
+                        // liveness/readiness for the platform; everything else of actuator is on management.server.port
+                        .requestMatchers("/livez", "/readyz").permitAll()
+                        // only reachable on the management port, which stays off the public network
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
@@ -1,18 +1,29 @@
 package com.moodTracker.controller;
 
-import com.moodTracker.dto.AiPlan;
-import com.moodTracker.dto.MoodEntryAiResponse;
+import com.moodTracker.dto.AiJobStatus;
+import com.moodTracker.entity.Role;
 import com.moodTracker.entity.User;
+import com.moodTracker.security.AuthenticatedUser;
 import com.moodTracker.service.AiAdviceService;
+import com.moodTracker.service.AiJobService;
+import com.moodTracker.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
 
 @RestController
 @RequestMapping("/ai")
@@ -20,28 +31,80 @@ import org.springframework.web.server.ResponseStatusException;
 public class AiAnalyzerController {
 
     private final AiAdviceService aiAdviceService;
+    private final AiJobService aiJobService;
+    private final UserService userService;
 
     @PostMapping("/plan")
-    public AiPlan generatePlan(@AuthenticationPrincipal Object principal,
-                               @RequestParam(name = "email", required = false) String email) {
-        String resolved = resolveEmail(principal, email);
-        if (resolved == null || resolved.isBlank()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Authentication failed!");
+    public ResponseEntity<?> generatePlan(@AuthenticationPrincipal Object principal,
+                                          @RequestParam(name = "email", required = false) String email,
+                                          @RequestParam(name = "async", defaultValue = "false") boolean async) {
+        Long userId = requireUserId(principal, email);
+        if (async) {
+            return accepted(aiJobService.submitPlan(userId));
         }
-        return aiAdviceService.generatePlan(resolved);
+        return ResponseEntity.ok(aiAdviceService.generatePlan(userId));
     }
 
+    /**
+     * Plan as server-sent events: "token" events while the model writes, then one "done" (or "error").
+     */
+    @RequestMapping(value = "/plan/stream", method = {RequestMethod.GET, RequestMethod.POST},
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPlan(@AuthenticationPrincipal Object principal,
+                                 @RequestParam(name = "email", required = false) String email) {
+        return aiAdviceService.streamPlan(requireUserId(principal, email));
+    }
 
     @PostMapping("/analyze")
-    public MoodEntryAiResponse analyzePost(@AuthenticationPrincipal Object principal,
-                                           @RequestParam(name = "email", required = false) String email) {
-        String resolved = resolveEmail(principal, email);
+    public ResponseEntity<?> analyzePost(@AuthenticationPrincipal Object principal,
+                                         @RequestParam(name = "email", required = false) String email,
+                                         @RequestParam(name = "async", defaultValue = "false") boolean async) {
+        Long userId = requireUserId(principal, email);
+        if (async) {
+            return accepted(aiJobService.submitAnalyze(userId));
+        }
+        return ResponseEntity.ok(aiAdviceService.analyze(userId));
+    }
+
+    @GetMapping("/jobs/{id}")
+    public AiJobStatus getJob(@AuthenticationPrincipal Object principal, @PathVariable("id") String id) {
+        return aiJobService.getStatus(id, requireUserId(principal, null));
+    }
+
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter jobEvents(@AuthenticationPrincipal Object principal, @PathVariable("id") String id) {
+        return aiJobService.subscribe(id, requireUserId(principal, null));
+    }
+
+    private ResponseEntity<AiJobStatus> accepted(AiJobStatus job) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/ai/jobs/" + job.id()))
+                .body(job);
+    }
+
+    private Long requireUserId(Object principal, String emailParam) {
+        String own = resolveEmail(principal, null);
+        boolean other = emailParam != null && !emailParam.isBlank() && !emailParam.equals(own);
+        // acting for another user is an admin tool; the jobs it starts are then owned by that user
+        if (other && !isAdmin(principal)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to act for another user");
+        }
+        // the token already carries the caller's id; only an explicit other email needs a lookup
+        if (principal instanceof AuthenticatedUser u && !other) {
+            return u.id();
+        }
+        String resolved = other ? emailParam : own;
         if (resolved == null || resolved.isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "Authentication failed!");
         }
-        return aiAdviceService.analyze(resolved);
+        return userService.getUserId(resolved);
+    }
+
+    private static boolean isAdmin(Object principal) {
+        if (principal instanceof User u) return u.getRole() == Role.ADMIN;
+        return principal instanceof UserDetails ud && ud.getAuthorities().stream()
+                .anyMatch(a -> ("ROLE_" + Role.ADMIN.name()).equals(a.getAuthority()));
     }
 
     private String resolveEmail(Object principal, String emailParam) {
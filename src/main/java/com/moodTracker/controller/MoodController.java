@@ -1,9 +1,20 @@
 package com.moodTracker.controller;
 
+import com.moodTracker.dto.MoodBucketsResponse;
 import com.moodTracker.dto.MoodEntryRequest;
 import com.moodTracker.dto.MoodEntryResponse;
+import com.moodTracker.dto.MoodEntrySlice;
+import com.moodTracker.dto.MoodImportResponse;
+import com.moodTracker.dto.MoodStatsResponse;
 import com.moodTracker.exception.BadRequestException;
+import com.moodTracker.repository.MoodEntryJdbcRepository.Granularity;
+import com.moodTracker.security.AuthenticatedUser;
+import com.moodTracker.service.DataVersionService;
 import com.moodTracker.service.MoodEntryService;
+import com.moodTracker.service.MoodExportService;
+import com.moodTracker.service.MoodImportService;
+import com.moodTracker.service.MoodStatsService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -11,13 +22,18 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -25,36 +41,72 @@ import java.time.LocalDate;
 public class MoodController {
 
     private final MoodEntryService service;
+    private final MoodStatsService moodStatsService;
+    private final MoodImportService moodImportService;
+    private final MoodExportService moodExportService;
+    private final DataVersionService dataVersionService;
 
     @PostMapping("/create")
     @ResponseStatus(HttpStatus.CREATED)
-    public MoodEntryResponse create(@AuthenticationPrincipal UserDetails principal,
+    public MoodEntryResponse create(@AuthenticationPrincipal AuthenticatedUser principal,
                                     @Valid @RequestBody MoodEntryRequest req) {
-        return service.create(principal.getUsername(), req);
+        return service.create(principal.id(), req);
     }
 
     @PutMapping("/update")
     @ResponseStatus(HttpStatus.OK)
-    public MoodEntryResponse update(@AuthenticationPrincipal UserDetails principal,
+    public MoodEntryResponse update(@AuthenticationPrincipal AuthenticatedUser principal,
                                     @Valid @RequestBody MoodEntryRequest req) {
-        return service.update(principal.getUsername(), req);
+        return service.update(principal.id(), req);
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/json", "application/x-ndjson", "text/csv"})
+    public MoodImportResponse importEntries(@AuthenticationPrincipal AuthenticatedUser principal,
+                                            HttpServletRequest request) throws IOException {
+        // body is read as a stream so large imports are never buffered whole
+        return moodImportService.importEntries(principal.id(), request.getInputStream(), request.getContentType());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format
+    ) {
+        MoodExportService.Format f = switch (format.toLowerCase()) {
+            case "ndjson" -> MoodExportService.Format.NDJSON;
+            case "csv" -> MoodExportService.Format.CSV;
+            default -> throw new BadRequestException("Parameter 'format' must be 'ndjson' or 'csv'.");
+        };
+        Long userId = principal.id();
+        StreamingResponseBody body = out -> moodExportService.export(userId, f, out);
+
+        return ResponseEntity.ok()
+                .contentType(f == MoodExportService.Format.CSV
+                        ? MediaType.parseMediaType("text/csv")
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"moods." + format.toLowerCase() + "\"")
+                .body(body);
     }
 
     @GetMapping("/date")
     public MoodEntryResponse getByDate(
-            @AuthenticationPrincipal(expression = "username") String email,
-            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest webRequest
     ) {
-        return service.getEntryForDate(email, date);
+        if (webRequest.checkNotModified(etag(principal.id(), null))) return null;
+        return service.getEntryForDate(principal.id(), date);
     }
 
     @GetMapping("/range")
     public Page<MoodEntryResponse> getByDateRange(
-            @AuthenticationPrincipal(expression = "username") String email,
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
             @RequestParam("end")   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
             @PageableDefault(size = 10, sort = "entryDate", direction = Sort.Direction.DESC)
-            Pageable pageable
+            Pageable pageable,
+            WebRequest webRequest
     ) {
 
         if (start == null || end == null) {
@@ -69,22 +121,86 @@ public class MoodController {
             throw new BadRequestException("Date range too large. Max one year back.");
         }
 
-        return service.getEntryForDateRange(email, start, end, pageable);
+        if (webRequest.checkNotModified(etag(principal.id(), null))) return null;
+        return service.getEntryForDateRange(principal.id(), start, end, pageable);
+    }
+
+    @GetMapping("/range/seek")
+    public MoodEntrySlice getByDateRangeSeek(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam("end")   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            WebRequest webRequest
+    ) {
+
+        if (end.isBefore(start)) {
+            throw new BadRequestException("'end' date must be the same as or after 'start' date.");
+        }
+        if (size < 1 || size > 100) {
+            throw new BadRequestException("Parameter 'size' must be between 1 and 100.");
+        }
+
+        if (webRequest.checkNotModified(etag(principal.id(), null))) return null;
+
+        // no one-year limit here: each slice costs the same however deep the client scrolls
+        return service.getEntrySliceForDateRange(principal.id(), start, end, cursor, size);
     }
 
     @DeleteMapping("/delete")
     public ResponseEntity<?> deleteById(
-            @AuthenticationPrincipal(expression = "username") String email,
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @RequestParam("id") Long id
     ) {
 
-        String result = service.deleteById(email, id);
+        String result = service.deleteById(principal.id(), id);
         return new ResponseEntity<>(result, HttpStatus.OK);
     }
 
 
+    @GetMapping("/stats")
+    public List<MoodStatsResponse> getStats(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return moodStatsService.getStats(principal.id());
+    }
+
+    @GetMapping("/buckets")
+    public MoodBucketsResponse getBuckets(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam("end")   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(value = "granularity", defaultValue = "day") String granularity
+    ) {
+
+        if (end.isBefore(start)) {
+            throw new BadRequestException("'end' date must be the same as or after 'start' date.");
+        }
+        if (start.isBefore(end.minusYears(5))) {
+            throw new BadRequestException("Date range too large. Max five years.");
+        }
+
+        Granularity g = switch (granularity.toLowerCase()) {
+            case "day" -> Granularity.DAY;
+            case "week" -> Granularity.WEEK;
+            case "month" -> Granularity.MONTH;
+            default -> throw new BadRequestException("Parameter 'granularity' must be 'day', 'week' or 'month'.");
+        };
+        return moodStatsService.getBuckets(principal.id(), start, end, g);
+    }
+
     @GetMapping("/today")
-    public MoodEntryResponse getToday(@AuthenticationPrincipal UserDetails principal) {
-        return service.getToday(principal.getUsername());
+    public MoodEntryResponse getToday(@AuthenticationPrincipal AuthenticatedUser principal, WebRequest webRequest) {
+        // "today" moves at midnight without any write, so the date is part of the tag
+        if (webRequest.checkNotModified(etag(principal.id(), LocalDate.now().toString()))) return null;
+        return service.getToday(principal.id());
+    }
+
+    /**
+     * Strong ETag from the user's data version. Checked before any mood query, so an unchanged
+     * poll costs one primary-key lookup and a 304.
+     */
+    private String etag(Long userId, String discriminator) {
+        String tag = userId + "-" + dataVersionService.current(userId);
+        return "\"" + (discriminator == null ? tag : tag + "-" + discriminator) + "\"";
     }
 }
@@ -0,0 +1,12 @@
+package com.moodTracker.dto;
+
+import java.time.Instant;
+
+public record AiJobStatus(String id,
+                          String type,
+                          String status,
+                          Instant submittedAt,
+                          Instant finishedAt,
+                          Object result,
+                          String error) {
+}
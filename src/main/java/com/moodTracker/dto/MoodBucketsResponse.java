@@ -0,0 +1,15 @@
+package com.moodTracker.dto;
+
+/**
+ * Columnar buckets: index i of every array describes the bucket starting at {@code keys[i]}.
+ * Buckets without entries are left out.
+ */
+public record MoodBucketsResponse(String granularity,
+                                  String from,
+                                  String to,
+                                  String[] keys,
+                                  int[] count,
+                                  double[] avg,
+                                  int[] min,
+                                  int[] max) {
+}
@@ -0,0 +1,18 @@
+package com.moodTracker.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Change to a mood entry, published to Kafka through the outbox and keyed by {@code userId}.
+ * For DELETED the score and date are the values the entry had.
+ */
+public record MoodEntryEvent(Type type,
+                             Long entryId,
+                             Long userId,
+                             LocalDate date,
+                             int moodScore,
+                             Instant occurredAt) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+}
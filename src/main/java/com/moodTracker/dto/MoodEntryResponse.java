@@ -2,5 +2,13 @@ package com.moodTracker.dto;
 
 import lombok.Builder;
 
+import java.time.LocalDate;
+
 @Builder
-public record MoodEntryResponse(Long id, String date, int moodScore, String note) {}
+public record MoodEntryResponse(Long id, String date, int moodScore, String note) {
+
+    /** Target of the JPQL constructor projections in MoodEntryRepository. */
+    public MoodEntryResponse(Long id, LocalDate date, int moodScore, String note) {
+        this(id, date.toString(), moodScore, note);
+    }
+}
@@ -0,0 +1,5 @@
+package com.moodTracker.dto;
+
+import java.util.List;
+
+public record MoodEntrySlice(List<MoodEntryResponse> content, int size, boolean hasNext, String nextCursor) {}
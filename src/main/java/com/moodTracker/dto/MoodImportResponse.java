@@ -0,0 +1,7 @@
+package com.moodTracker.dto;
+
+import java.util.List;
+
+public record MoodImportResponse(int total, int inserted, int updated, int unchanged, int failed,
+                                 List<MoodImportRowResult> rows) {
+}
@@ -0,0 +1,4 @@
+package com.moodTracker.dto;
+
+public record MoodImportRowResult(int row, String date, String status, String error) {
+}
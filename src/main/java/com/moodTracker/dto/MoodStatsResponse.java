@@ -0,0 +1,13 @@
+package com.moodTracker.dto;
+
+public record MoodStatsResponse(int windowDays,
+                                String from,
+                                String to,
+                                int count,
+                                double average,
+                                double stdDev,
+                                Integer min,
+                                Integer max,
+                                int currentStreak,
+                                int longestStreak) {
+}
@@ -39,6 +39,10 @@ public class AiAnalysis {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    /** users.data_version the analysis was computed from. */
+    @Column(name = "data_version")
+    private Long dataVersion;
+
     @PrePersist
     void onCreate() {
         var now = LocalDateTime.now();
@@ -0,0 +1,31 @@
+package com.moodTracker.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "mood_stats")
+public class MoodStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDate asOf;
+
+    // one byte per day, index 0 = asOf and index i = asOf - i; 0 means no entry. Null marks the row stale.
+    @Column(name = "day_scores", length = 366)
+    private byte[] dayScores;
+
+    // per-window score counts and streaks as of asOf (see RollingMoodStats#totals); null until the next write
+    @Column(name = "window_totals", length = 56)
+    private byte[] windowTotals;
+}
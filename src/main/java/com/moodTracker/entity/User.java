@@ -4,7 +4,13 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
 
 @Entity
 @Table(name = "users")
@@ -34,4 +40,34 @@ public class User {
     // ako budemo imali uloge
     @Enumerated(EnumType.STRING)
     private Role role;
+
+    // tokens carry the version they were issued at; see UserInvalidationService
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
+    @Column(name = "tokens_invalid_before")
+    private Instant tokensInvalidBefore;
+
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<Object> loadedCredentials;
+
+    @PostLoad
+    void rememberCredentials() {
+        loadedCredentials = credentials();
+    }
+
+    /** Whatever path changes the password, the role or the enabled flag also invalidates earlier tokens. */
+    @PreUpdate
+    void invalidateTokensOnCredentialChange() {
+        if (loadedCredentials == null || loadedCredentials.equals(credentials())) return;
+        tokenVersion++;
+        tokensInvalidBefore = Instant.now();
+        loadedCredentials = credentials();
+    }
+
+    private List<Object> credentials() {
+        return Arrays.asList(password, enabled, role);
+    }
 }
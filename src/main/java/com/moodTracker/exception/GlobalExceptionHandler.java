@@ -1,12 +1,15 @@
 package com.moodTracker.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponseException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.Objects;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -22,6 +25,17 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(BadRequestException ex) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    // ResponseStatusException and the other status-carrying exceptions keep their status
+    @ExceptionHandler(ErrorResponseException.class)
+    public ResponseEntity<Map<String, Object>> handleErrorResponse(ErrorResponseException ex) {
+        return error(ex.getStatusCode(), ex.getBody().getDetail());
+    }
+
     // Fallback handler za sve ostale RuntimeException
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntime(RuntimeException ex) {
@@ -33,4 +47,15 @@ public class GlobalExceptionHandler {
                         "message", ex.getMessage()
                 ));
     }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatusCode status, String message) {
+        HttpStatus known = HttpStatus.resolve(status.value());
+        return ResponseEntity.status(status)
+                .body(Map.of(
+                        "timestamp", LocalDateTime.now(),
+                        "status", status.value(),
+                        "error", known == null ? status.toString() : known.getReasonPhrase(),
+                        "message", Objects.requireNonNullElse(message, "")
+                ));
+    }
 }
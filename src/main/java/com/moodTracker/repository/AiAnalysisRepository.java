@@ -2,10 +2,65 @@ package com.moodTracker.repository;
 
 import com.moodTracker.entity.AiAnalysis;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface AiAnalysisRepository extends JpaRepository<AiAnalysis, Long> {
 
     Optional<AiAnalysis> findByUserId(Long userId);
+
+    /**
+     * The stored analysis if it was computed from the user's current data version and is newer than
+     * {@code notBefore}; the 30-day window it summarises slides even when no entry changes.
+     */
+    @Query(value = """
+            SELECT a.* FROM ai_analysis a JOIN users u ON u.id = a.user_id
+            WHERE a.user_id = :userId AND a.data_version = u.data_version AND a.created_at > :notBefore
+            """, nativeQuery = true)
+    Optional<AiAnalysis> findCurrent(@Param("userId") Long userId, @Param("notBefore") LocalDateTime notBefore);
+
+    interface StaleAnalysis {
+        Long getId();
+    }
+
+    /** Enabled users with an entry since {@code since} whose analysis is missing or older than their data, by id. */
+    @Query(value = """
+            SELECT u.id AS id FROM users u
+            LEFT JOIN ai_analysis a ON a.user_id = u.id
+            WHERE u.id > :afterId AND u.enabled = TRUE
+              AND (a.data_version IS NULL OR a.data_version <> u.data_version)
+              AND EXISTS (SELECT 1 FROM mood_entries e WHERE e.user_id = u.id AND e.entry_date >= :since)
+            ORDER BY u.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<StaleAnalysis> findStale(@Param("afterId") long afterId, @Param("since") LocalDate since,
+                                  @Param("limit") int limit);
+
+    /**
+     * Insert or replace the user's analysis in one statement; {@code suggestions} is the JSON array and
+     * {@code dataVersion} the users.data_version the entries were read at.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO ai_analysis (user_id, average, summary, suggestions, created_at, data_version)
+            VALUES (:userId, :average, :summary, :suggestions, :createdAt, :dataVersion) AS new
+            ON DUPLICATE KEY UPDATE average = new.average, summary = new.summary,
+                                    suggestions = new.suggestions, created_at = new.created_at,
+                                    data_version = new.data_version
+            """, nativeQuery = true)
+    int upsert(@Param("userId") Long userId,
+               @Param("average") BigDecimal average,
+               @Param("summary") String summary,
+               @Param("suggestions") String suggestions,
+               @Param("createdAt") LocalDateTime createdAt,
+               @Param("dataVersion") long dataVersion);
 }
@@ -0,0 +1,84 @@
+package com.moodTracker.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Async AI jobs in the {@code ai_jobs} table; {@code result} is the job's response as JSON.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AiJobRepository {
+
+    private static final String COLUMNS = "id, user_id, job_type, status, result, error, submitted_at, finished_at";
+
+    private static final RowMapper<AiJobRow> ROW = (rs, i) -> {
+        Timestamp finished = rs.getTimestamp("finished_at");
+        return new AiJobRow(
+                rs.getString("id"),
+                rs.getLong("user_id"),
+                rs.getString("job_type"),
+                rs.getString("status"),
+                rs.getTimestamp("submitted_at").toInstant(),
+                finished == null ? null : finished.toInstant(),
+                rs.getString("result"),
+                rs.getString("error"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public record AiJobRow(String id, Long userId, String type, String status, Instant submittedAt,
+                           Instant finishedAt, String result, String error) {}
+
+    public void insert(String id, Long userId, String type, String status, Instant submittedAt) {
+        jdbcTemplate.update("INSERT INTO ai_jobs (id, user_id, job_type, status, submitted_at) VALUES (?, ?, ?, ?, ?)",
+                id, userId, type, status, Timestamp.from(submittedAt));
+    }
+
+    public void updateStatus(String id, String status) {
+        jdbcTemplate.update("UPDATE ai_jobs SET status = ? WHERE id = ? AND finished_at IS NULL", status, id);
+    }
+
+    public void finish(String id, String status, String result, String error, Instant finishedAt) {
+        jdbcTemplate.update("UPDATE ai_jobs SET status = ?, result = ?, error = ?, finished_at = ? WHERE id = ?",
+                status, result, error, Timestamp.from(finishedAt), id);
+    }
+
+    public void delete(String id) {
+        jdbcTemplate.update("DELETE FROM ai_jobs WHERE id = ?", id);
+    }
+
+    public Optional<AiJobRow> find(String id, Long userId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM ai_jobs WHERE id = ? AND user_id = ?", ROW, id, userId)
+                .stream().findFirst();
+    }
+
+    public List<AiJobRow> findFinished(Collection<String> ids) {
+        if (ids.isEmpty()) return List.of();
+        return namedJdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM ai_jobs WHERE id IN (:ids) AND finished_at IS NOT NULL",
+                new MapSqlParameterSource("ids", ids), ROW);
+    }
+
+    public int deleteFinishedBefore(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM ai_jobs WHERE finished_at < ?", Timestamp.from(cutoff));
+    }
+
+    /** Fail jobs still unfinished since before {@code submittedBefore}; their instance stopped or restarted. */
+    public int failAbandoned(Instant submittedBefore, String status, String error, Instant now) {
+        return jdbcTemplate.update(
+                "UPDATE ai_jobs SET status = ?, error = ?, finished_at = ? WHERE finished_at IS NULL AND submitted_at < ?",
+                status, error, Timestamp.from(now), Timestamp.from(submittedBefore));
+    }
+}
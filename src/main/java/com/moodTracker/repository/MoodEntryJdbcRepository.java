@@ -0,0 +1,194 @@
+package com.moodTracker.repository;
+
+import com.moodTracker.dto.MoodEntryResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Plain JDBC access to mood_entries for bulk paths where entity hydration and IDENTITY inserts
+ * (which Hibernate cannot batch) would dominate.
+ */
+@Repository
+@RequiredArgsConstructor
+@Observed
+public class MoodEntryJdbcRepository {
+
+    private static final String UPSERT = """
+            INSERT INTO mood_entries (user_id, entry_date, mood_score, note) VALUES (?, ?, ?, ?) AS new
+            ON DUPLICATE KEY UPDATE mood_score = new.mood_score, note = new.note
+            """;
+
+    private static final String EXPORT_FIRST_PAGE = """
+            SELECT id, entry_date, mood_score, note FROM mood_entries
+            WHERE user_id = ? ORDER BY entry_date, id LIMIT ?
+            """;
+
+    private static final String EXPORT_PAGE_AFTER = """
+            SELECT id, entry_date, mood_score, note FROM mood_entries
+            WHERE user_id = ? AND (entry_date > ? OR (entry_date = ? AND id > ?))
+            ORDER BY entry_date, id LIMIT ?
+            """;
+
+    private static final String BUCKETS = """
+            SELECT %s AS bucket, COUNT(*) AS cnt, SUM(mood_score) AS total, MIN(mood_score) AS lo, MAX(mood_score) AS hi
+            FROM mood_entries
+            WHERE user_id = ? AND entry_date BETWEEN ? AND ?
+            GROUP BY bucket ORDER BY bucket
+            """;
+
+    /** Bucket key per granularity: the day itself, the Monday of its week, or the first of its month. */
+    public enum Granularity {
+        DAY("entry_date"),
+        WEEK("DATE_SUB(entry_date, INTERVAL WEEKDAY(entry_date) DAY)"),
+        MONTH("DATE_SUB(entry_date, INTERVAL DAYOFMONTH(entry_date) - 1 DAY)");
+
+        private final String sql;
+
+        Granularity(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    public record BucketRow(LocalDate bucket, int count, long sum, int min, int max) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public record UpsertRow(Long userId, LocalDate entryDate, int moodScore, String note) {}
+
+    public record EntryKey(Long userId, LocalDate entryDate) {}
+
+    /**
+     * Upsert on the uq_user_date key as one JDBC batch. Per-row counts follow MySQL:
+     * 1 inserted, 2 updated, 0 unchanged, or -2 (SUCCESS_NO_INFO) when the driver rewrites the batch.
+     */
+    public int[] upsertBatch(List<UpsertRow> rows) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (UpsertRow r : rows) {
+            args.add(new Object[]{r.userId(), Date.valueOf(r.entryDate()), r.moodScore(), r.note()});
+        }
+        return timed("upsertBatch", () -> jdbcTemplate.batchUpdate(UPSERT, args));
+    }
+
+    /**
+     * Upsert all rows with a single multi-row INSERT ... ON DUPLICATE KEY UPDATE, independent of the driver's
+     * batch rewriting. Rows repeating a (user, date) pair resolve in list order, so the last one wins.
+     */
+    public int upsertMultiRow(List<UpsertRow> rows) {
+        if (rows.isEmpty()) return 0;
+        var sql = new StringBuilder("INSERT INTO mood_entries (user_id, entry_date, mood_score, note) VALUES ");
+        Object[] args = new Object[rows.size() * 4];
+        for (int i = 0; i < rows.size(); i++) {
+            UpsertRow r = rows.get(i);
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            args[i * 4] = r.userId();
+            args[i * 4 + 1] = Date.valueOf(r.entryDate());
+            args[i * 4 + 2] = r.moodScore();
+            args[i * 4 + 3] = r.note();
+        }
+        sql.append(" AS new ON DUPLICATE KEY UPDATE mood_score = new.mood_score, note = new.note");
+        return timed("upsertMultiRow", () -> jdbcTemplate.update(sql.toString(), args));
+    }
+
+    /** The user's entries on the given dates, by date, in one query on the uq_user_date key. */
+    public Map<LocalDate, UpsertRow> findByDates(Long userId, Collection<LocalDate> dates) {
+        if (dates.isEmpty()) return new HashMap<>();
+        String in = String.join(", ", Collections.nCopies(dates.size(), "?"));
+        List<Object> args = new ArrayList<>(dates.size() + 1);
+        args.add(userId);
+        dates.forEach(d -> args.add(Date.valueOf(d)));
+        return timed("findByDates", () -> jdbcTemplate.query(
+                "SELECT entry_date, mood_score, note FROM mood_entries WHERE user_id = ? AND entry_date IN (" + in + ")",
+                rs -> {
+                    Map<LocalDate, UpsertRow> rows = new HashMap<>();
+                    while (rs.next()) {
+                        LocalDate date = rs.getDate("entry_date").toLocalDate();
+                        rows.put(date, new UpsertRow(userId, date, rs.getInt("mood_score"), rs.getString("note")));
+                    }
+                    return rows;
+                }, args.toArray()));
+    }
+
+    /** Ids of the rows' entries that exist, by (user, date), in one query on the uq_user_date key. */
+    public Map<EntryKey, Long> findIds(List<UpsertRow> rows) {
+        if (rows.isEmpty()) return new HashMap<>();
+        var sql = new StringBuilder("SELECT id, user_id, entry_date FROM mood_entries WHERE (user_id, entry_date) IN (");
+        Object[] args = new Object[rows.size() * 2];
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+            args[i * 2] = rows.get(i).userId();
+            args[i * 2 + 1] = Date.valueOf(rows.get(i).entryDate());
+        }
+        sql.append(")");
+        return timed("findIds", () -> jdbcTemplate.query(sql.toString(), rs -> {
+            Map<EntryKey, Long> ids = new HashMap<>();
+            while (rs.next()) {
+                ids.put(new EntryKey(rs.getLong("user_id"), rs.getDate("entry_date").toLocalDate()), rs.getLong("id"));
+            }
+            return ids;
+        }, args));
+    }
+
+    /**
+     * One page of a user's entries oldest first, starting after (afterDate, afterId), or from the start when
+     * afterDate is null. Each page is its own short query, so no connection is held between pages.
+     */
+    public List<MoodEntryResponse> findExportPage(Long userId, LocalDate afterDate, long afterId, int limit) {
+        RowMapper<MoodEntryResponse> mapper = (rs, i) -> new MoodEntryResponse(
+                rs.getLong("id"),
+                rs.getDate("entry_date").toLocalDate().toString(),
+                rs.getInt("mood_score"),
+                rs.getString("note"));
+        if (afterDate == null) {
+            return timed("findExportPage", () -> jdbcTemplate.query(EXPORT_FIRST_PAGE, mapper, userId, limit));
+        }
+        Date after = Date.valueOf(afterDate);
+        return timed("findExportPage",
+                () -> jdbcTemplate.query(EXPORT_PAGE_AFTER, mapper, userId, after, after, afterId, limit));
+    }
+
+    public List<BucketRow> aggregateBuckets(Long userId, LocalDate start, LocalDate end, Granularity granularity) {
+        return timed("aggregateBuckets", () -> jdbcTemplate.query(BUCKETS.formatted(granularity.sql),
+                (rs, i) -> new BucketRow(
+                        rs.getDate("bucket").toLocalDate(),
+                        rs.getInt("cnt"),
+                        rs.getLong("total"),
+                        rs.getInt("lo"),
+                        rs.getInt("hi")),
+                userId, Date.valueOf(start), Date.valueOf(end)));
+    }
+
+    /**
+     * Same meter and tags as Spring Data's own repository metrics, so JDBC and JPA queries land in one series.
+     */
+    private <T> T timed(String method, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String state = "SUCCESS";
+        String exception = "None";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            state = "ERROR";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("spring.data.repository.invocations",
+                    "repository", "MoodEntryJdbcRepository", "method", method, "state", state, "exception", exception));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.moodTracker.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class MoodEntryOutboxRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record OutboxRow(long id, long userId, String payload) {}
+
+    public void append(Long userId, String eventType, String payload) {
+        jdbcTemplate.update("INSERT INTO mood_entry_outbox (user_id, event_type, payload) VALUES (?, ?, ?)",
+                userId, eventType, payload);
+    }
+
+    public record NewEvent(Long userId, String eventType, String payload) {}
+
+    public void appendAll(List<NewEvent> events) {
+        jdbcTemplate.batchUpdate("INSERT INTO mood_entry_outbox (user_id, event_type, payload) VALUES (?, ?, ?)",
+                events, events.size(), (ps, e) -> {
+                    ps.setLong(1, e.userId());
+                    ps.setString(2, e.eventType());
+                    ps.setString(3, e.payload());
+                });
+    }
+
+    /** Oldest events first. Not locked: the relay lease keeps other instances from reading the same rows. */
+    public List<OutboxRow> findOldest(int limit) {
+        return jdbcTemplate.query("SELECT id, user_id, payload FROM mood_entry_outbox ORDER BY id LIMIT ?",
+                (rs, i) -> new OutboxRow(rs.getLong("id"), rs.getLong("user_id"), rs.getString("payload")),
+                limit);
+    }
+
+    public void delete(List<Long> ids) {
+        jdbcTemplate.batchUpdate("DELETE FROM mood_entry_outbox WHERE id = ?", ids, ids.size(),
+                (ps, id) -> ps.setLong(1, id));
+    }
+
+    public long count() {
+        Long n = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mood_entry_outbox", Long.class);
+        return n == null ? 0 : n;
+    }
+}
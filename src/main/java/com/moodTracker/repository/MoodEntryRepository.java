@@ -1,11 +1,17 @@
 package com.moodTracker.repository;
 
+import com.moodTracker.dto.MoodEntryDto;
+import com.moodTracker.dto.MoodEntryResponse;
 import com.moodTracker.entity.MoodEntry;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,11 +19,82 @@ public interface MoodEntryRepository extends JpaRepository<MoodEntry, Long> {
 
     Optional<MoodEntry> findByUserIdAndEntryDate(Long userId, LocalDate date);
 
-    List<MoodEntry> findAllByUserIdAndEntryDateBetweenOrderByEntryDateDesc(
-            Long userId, LocalDate from, LocalDate to);
+    Optional<MoodEntry> findByIdAndUserId(Long id, Long userId);
 
     boolean existsByUserIdAndEntryDate(Long userId, LocalDate date);
 
-    Page<MoodEntry> findByUserIdAndEntryDateBetween(Long userId, LocalDate start, LocalDate end, Pageable pageable);
+    // read paths project straight into DTOs: no managed entities, User proxies or dirty checking
+
+    @Query("""
+            select new com.moodTracker.dto.MoodEntryResponse(e.id, e.entryDate, e.moodScore, e.note)
+            from MoodEntry e
+            where e.user.id = :userId and e.entryDate = :date
+            """)
+    Optional<MoodEntryResponse> findResponseByUserIdAndEntryDate(@Param("userId") Long userId,
+                                                                 @Param("date") LocalDate date);
+
+    @Query("""
+            select new com.moodTracker.dto.MoodEntryDto(e.id, e.user.id, e.entryDate, e.moodScore, e.note)
+            from MoodEntry e
+            where e.user.id = :userId and e.entryDate between :from and :to
+            order by e.entryDate desc
+            """)
+    List<MoodEntryDto> findDtosDesc(@Param("userId") Long userId, @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to);
+
+    @Query(value = """
+            select new com.moodTracker.dto.MoodEntryResponse(e.id, e.entryDate, e.moodScore, e.note)
+            from MoodEntry e
+            where e.user.id = :userId and e.entryDate between :start and :end
+            """,
+            countQuery = """
+            select count(e) from MoodEntry e
+            where e.user.id = :userId and e.entryDate between :start and :end
+            """)
+    Page<MoodEntryResponse> findResponsePage(@Param("userId") Long userId, @Param("start") LocalDate start,
+                                             @Param("end") LocalDate end, Pageable pageable);
+
+    @Query("""
+            select new com.moodTracker.dto.MoodEntryResponse(e.id, e.entryDate, e.moodScore, e.note)
+            from MoodEntry e
+            where e.user.id = :userId and e.entryDate between :start and :end
+            order by e.entryDate desc, e.id desc
+            """)
+    List<MoodEntryResponse> findFirstSlice(@Param("userId") Long userId, @Param("start") LocalDate start,
+                                           @Param("end") LocalDate end, Limit limit);
+
+    // seek past the last (entryDate, id) seen instead of skipping OFFSET rows
+    @Query("""
+            select new com.moodTracker.dto.MoodEntryResponse(e.id, e.entryDate, e.moodScore, e.note)
+            from MoodEntry e
+            where e.user.id = :userId and e.entryDate between :start and :end
+              and (e.entryDate < :afterDate or (e.entryDate = :afterDate and e.id < :afterId))
+            order by e.entryDate desc, e.id desc
+            """)
+    List<MoodEntryResponse> findSliceAfter(@Param("userId") Long userId, @Param("start") LocalDate start,
+                                           @Param("end") LocalDate end, @Param("afterDate") LocalDate afterDate,
+                                           @Param("afterId") Long afterId, Limit limit);
+
+    interface DayScore {
+        LocalDate getEntryDate();
+        int getMoodScore();
+    }
+
+    @Query("""
+            select e.entryDate as entryDate, e.moodScore as moodScore from MoodEntry e
+            where e.user.id = :userId and e.entryDate between :from and :to
+            """)
+    List<DayScore> findDayScores(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    interface UserDayScore extends DayScore {
+        Long getUserId();
+    }
+
+    @Query("""
+            select e.user.id as userId, e.entryDate as entryDate, e.moodScore as moodScore from MoodEntry e
+            where e.user.id in :userIds and e.entryDate between :from and :to
+            """)
+    List<UserDayScore> findDayScoresForUsers(@Param("userIds") Collection<Long> userIds,
+                                             @Param("from") LocalDate from, @Param("to") LocalDate to);
 
 }
@@ -0,0 +1,37 @@
+package com.moodTracker.repository;
+
+import com.moodTracker.entity.MoodStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface MoodStatsRepository extends JpaRepository<MoodStats, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from MoodStats s where s.userId = :userId")
+    Optional<MoodStats> findForUpdate(@Param("userId") Long userId);
+
+    // locks in user id order, the order every batch writer takes them in
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from MoodStats s where s.userId in :userIds order by s.userId")
+    List<MoodStats> findAllForUpdate(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select s.userId from MoodStats s where s.userId in :userIds")
+    List<Long> findExistingIds(@Param("userIds") Collection<Long> userIds);
+
+    // rows are created with the migration and on first write; concurrent first writes meet on the primary key
+    @Modifying
+    @Query(value = """
+            INSERT INTO mood_stats (user_id, as_of, day_scores) VALUES (:userId, :asOf, NULL)
+            ON DUPLICATE KEY UPDATE user_id = user_id
+            """, nativeQuery = true)
+    void insertIfMissing(@Param("userId") Long userId, @Param("asOf") LocalDate asOf);
+}
@@ -0,0 +1,55 @@
+package com.moodTracker.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Lease locks and checkpoints in the {@code scheduled_jobs} table. A lease that is not renewed expires,
+ * so a crashed instance blocks the job only until {@code locked_until}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScheduledJobRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record JobState(long checkpoint, Instant lastCompletedAt) {}
+
+    public boolean tryLock(String job, String owner, Instant now, Instant until) {
+        return jdbcTemplate.update("""
+                UPDATE scheduled_jobs SET locked_by = ?, locked_until = ?
+                WHERE name = ? AND (locked_until IS NULL OR locked_until < ? OR locked_by = ?)
+                """, owner, Timestamp.from(until), job, Timestamp.from(now), owner) == 1;
+    }
+
+    /** Extend the lease and store progress; false when another instance has taken the lock over. */
+    public boolean renew(String job, String owner, Instant until, long checkpoint) {
+        return jdbcTemplate.update(
+                "UPDATE scheduled_jobs SET locked_until = ?, checkpoint = ? WHERE name = ? AND locked_by = ?",
+                Timestamp.from(until), checkpoint, job, owner) == 1;
+    }
+
+    public void complete(String job, String owner, Instant at) {
+        jdbcTemplate.update("""
+                UPDATE scheduled_jobs SET checkpoint = 0, last_completed_at = ?, locked_by = NULL, locked_until = NULL
+                WHERE name = ? AND locked_by = ?
+                """, Timestamp.from(at), job, owner);
+    }
+
+    public void release(String job, String owner) {
+        jdbcTemplate.update("UPDATE scheduled_jobs SET locked_by = NULL, locked_until = NULL WHERE name = ? AND locked_by = ?",
+                job, owner);
+    }
+
+    public JobState state(String job) {
+        return jdbcTemplate.queryForObject("SELECT checkpoint, last_completed_at FROM scheduled_jobs WHERE name = ?",
+                (rs, i) -> {
+                    Timestamp completed = rs.getTimestamp("last_completed_at");
+                    return new JobState(rs.getLong("checkpoint"), completed == null ? null : completed.toInstant());
+                }, job);
+    }
+}
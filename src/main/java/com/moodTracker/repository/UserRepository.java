@@ -4,7 +4,13 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -12,4 +18,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     Optional<User> findUserByEmail(String email);
+
+    @Query("select u.id from User u where u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    interface TokenCutoff {
+        Long getId();
+        int getTokenVersion();
+        Instant getTokensInvalidBefore();
+    }
+
+    @Query("""
+            select u.id as id, u.tokenVersion as tokenVersion, u.tokensInvalidBefore as tokensInvalidBefore
+            from User u where u.tokensInvalidBefore > :since
+            """)
+    List<TokenCutoff> findTokenCutoffsSince(@Param("since") Instant since);
+
+    @Query("""
+            select u.id as id, u.tokenVersion as tokenVersion, u.tokensInvalidBefore as tokensInvalidBefore
+            from User u where u.id = :id and u.tokensInvalidBefore is not null
+            """)
+    Optional<TokenCutoff> findTokenCutoff(@Param("id") Long id);
+
+    @Query(value = "SELECT data_version FROM users WHERE id = :id", nativeQuery = true)
+    Optional<Long> findDataVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE users SET data_version = data_version + 1 WHERE id = :id", nativeQuery = true)
+    int bumpDataVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE users SET data_version = data_version + 1 WHERE id IN (:ids)", nativeQuery = true)
+    int bumpDataVersions(@Param("ids") Collection<Long> ids);
 }
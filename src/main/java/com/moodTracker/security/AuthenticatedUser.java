@@ -0,0 +1,38 @@
+package com.moodTracker.security;
+
+import com.moodTracker.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated principal. Built from the users table on login and from signed token claims afterwards,
+ * so the id is available to services without looking the user up again. Carries no password; the hash
+ * only exists on the login-time {@link LoginUser}.
+ */
+public record AuthenticatedUser(Long id, String email, Role role, boolean enabled)
+        implements UserDetails {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role == null ? List.of() : List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
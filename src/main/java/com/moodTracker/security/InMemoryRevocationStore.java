@@ -0,0 +1,73 @@
+package com.moodTracker.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Single-node store. Keys are also filed into one-minute expiry buckets (a simple timing wheel),
+ * so a sweep only touches buckets that are already in the past instead of scanning every entry.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRevocationStore implements RevocationStore {
+
+    private static final long BUCKET_SECONDS = 60;
+
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Set<String>> wheel = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void revoke(String key, Instant expiresAt) {
+        revoked.merge(key, expiresAt, (a, b) -> a.isAfter(b) ? a : b);
+        wheel.computeIfAbsent(bucketOf(expiresAt), b -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    @Override
+    public boolean isRevoked(String key, Instant now) {
+        var exp = revoked.get(key);
+        return exp != null && now.isBefore(exp);
+    }
+
+    @Override
+    public void purgeExpired(Instant now) {
+        // every bucket strictly before the current one holds only expired keys
+        Map<Long, Set<String>> due = wheel.headMap(bucketOf(now));
+        for (var it = due.entrySet().iterator(); it.hasNext(); ) {
+            var bucket = it.next();
+            for (String key : bucket.getValue()) {
+                // a key revoked again with a later expiry stays in its newer bucket
+                revoked.computeIfPresent(key, (k, exp) -> exp.isAfter(now) ? exp : null);
+            }
+            it.remove();
+        }
+    }
+
+    @Override
+    public List<String> liveKeys(Instant now) {
+        return revoked.entrySet().stream()
+                .filter(e -> now.isBefore(e.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public List<String> revokedSince(Instant since) {
+        // nothing is revoked here except through this node, which updates its filter directly
+        return List.of();
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    private static long bucketOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), BUCKET_SECONDS);
+    }
+}
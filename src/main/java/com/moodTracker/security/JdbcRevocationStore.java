@@ -0,0 +1,54 @@
+package com.moodTracker.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Store shared by all instances through the {@code revoked_tokens} table.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "jdbc")
+public class JdbcRevocationStore implements RevocationStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void revoke(String key, Instant expiresAt) {
+        jdbcTemplate.update("""
+                INSERT INTO revoked_tokens (token_key, expires_at, revoked_at) VALUES (?, ?, ?) AS new
+                ON DUPLICATE KEY UPDATE expires_at = GREATEST(revoked_tokens.expires_at, new.expires_at)
+                """, key, Timestamp.from(expiresAt), Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public boolean isRevoked(String key, Instant now) {
+        List<Integer> hit = jdbcTemplate.queryForList(
+                "SELECT 1 FROM revoked_tokens WHERE token_key = ? AND expires_at > ?",
+                Integer.class, key, Timestamp.from(now));
+        return !hit.isEmpty();
+    }
+
+    @Override
+    public void purgeExpired(Instant now) {
+        jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at <= ?", Timestamp.from(now));
+    }
+
+    @Override
+    public List<String> liveKeys(Instant now) {
+        return jdbcTemplate.queryForList(
+                "SELECT token_key FROM revoked_tokens WHERE expires_at > ?", String.class, Timestamp.from(now));
+    }
+
+    @Override
+    public List<String> revokedSince(Instant since) {
+        return jdbcTemplate.queryForList(
+                "SELECT token_key FROM revoked_tokens WHERE revoked_at >= ?", String.class, Timestamp.from(since));
+    }
+}
@@ -1,8 +1,13 @@
 package com.moodTracker.security;
 
 import com.moodTracker.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -13,6 +18,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final CustomUserDetailsService customUserDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final UserInvalidationService userInvalidationService;
+    private final MeterRegistry meterRegistry;
+
+    // stateless: trust the signed identity claims instead of loading the user on every request
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(jakarta.servlet.http.HttpServletRequest request,
@@ -27,30 +38,55 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String token = authHeader.substring(7);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        final String cache = jwtService.hasCachedClaims(token) ? "hit" : "miss";
+
+        // one signature check at most; repeated tokens are served from the claims cache
+        final Claims claims;
+        try { claims = jwtService.parseClaims(token); }
+        catch (Exception e) {
+            stop(sample, "invalid", "skipped");
+            chain.doFilter(request, response);
+            return;
+        }
 
-        String jti = null;
-        try { jti = jwtService.extractJti(token); } catch (Exception ignored) {}
-        if (tokenBlacklistService.isRevoked(token, jti)) {
+        if (tokenBlacklistService.isRevoked(token, claims.getId())) {
+            stop(sample, cache, "revoked");
             chain.doFilter(request, response);
             return;
         }
 
-        final String email;
-        try { email = jwtService.extractEmail(token); }
-        catch (Exception e) { chain.doFilter(request, response); return; }
+        final String email = claims.getSubject();
 
         if (email != null && org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userDetails = customUserDetailsService.loadUserByUsername(email);
-            if (jwtService.isTokenValid(token, userDetails)) {
+            UserDetails userDetails = resolvePrincipal(claims, email);
+            if (userDetails != null && userDetails.isEnabled() && jwtService.isTokenValid(claims, userDetails)) {
                 var authToken = new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new org.springframework.security.web.authentication.WebAuthenticationDetailsSource().buildDetails(request));
                 org.springframework.security.core.context.SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
+        // only the authentication work is timed, not the rest of the chain
+        stop(sample, cache, "clear");
         chain.doFilter(request, response);
     }
 
+    private void stop(Timer.Sample sample, String claimsCache, String revocation) {
+        sample.stop(meterRegistry.timer("auth.filter", "claims_cache", claimsCache, "revocation", revocation));
+    }
+
+    private UserDetails resolvePrincipal(Claims claims, String email) {
+        UserDetails user = stateless ? jwtService.toPrincipal(claims) : null;
+        if (user == null) {
+            // tokens without identity claims, or stateless mode switched off; the password hash stays out of the context
+            user = LoginUser.withoutCredentials(customUserDetailsService.loadUserByUsername(email));
+        }
+        Long userId = user instanceof AuthenticatedUser u ? u.id() : null;
+        return userInvalidationService.isInvalidated(userId, claims.getIssuedAt(), jwtService.tokenVersion(claims))
+                ? null : user;
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getServletPath();
@@ -58,4 +94,3 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
 }
-
@@ -1,15 +1,21 @@
 package com.moodTracker.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moodTracker.entity.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
@@ -20,12 +26,45 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_ENABLED = "enabled";
+    static final String CLAIM_TOKEN_VERSION = "tv";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
+
+    private Key signInKey;
+    private JwtParser parser;
+
+    /**
+     * Verified claims keyed by the token's signature segment. The signature is already an HMAC digest
+     * of header + payload, so it works as a token digest without hashing the token again. Size-bounded
+     * with LRU-style eviction; no token outlives {@code jwt.expiration}, so entries expire after that.
+     */
+    private Cache<String, CachedClaims> claimsCache;
+
+    private record CachedClaims(String token, Claims claims, long expiresAtMs) {}
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        signInKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(jwtExpirationMs))
+                .build();
+    }
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
@@ -47,17 +86,58 @@ public class JwtService {
         return extractAllClaims(token);
     }
 
+    /** Whether {@link #parseClaims} would answer from the cache without verifying the signature. */
+    public boolean hasCachedClaims(String token) {
+        CachedClaims cached = claimsCache.getIfPresent(signatureOf(token));
+        return cached != null && cached.expiresAtMs() > System.currentTimeMillis() && cached.token().equals(token);
+    }
+
     public boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return email.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && claims.getExpiration().after(new Date());
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (LoginUser.withoutCredentials(userDetails) instanceof AuthenticatedUser u) {
+            claims.put(CLAIM_USER_ID, u.id());
+            claims.put(CLAIM_ROLE, u.role() == null ? null : u.role().name());
+            claims.put(CLAIM_ENABLED, u.enabled());
+        }
+        if (userDetails instanceof LoginUser l) {
+            claims.put(CLAIM_TOKEN_VERSION, l.tokenVersion());
+        }
+        return generateToken(claims, userDetails);
+    }
+
+    /**
+     * Rebuild the principal from signed claims, or return null for tokens issued
+     * before the identity claims were added (those still go through the database).
+     */
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        Object id = claims.get(CLAIM_USER_ID);
+        Object role = claims.get(CLAIM_ROLE);
+        Object enabled = claims.get(CLAIM_ENABLED);
+        if (!(id instanceof Number n) || !(enabled instanceof Boolean b)) return null;
+
+        return new AuthenticatedUser(
+                n.longValue(),
+                claims.getSubject(),
+                role == null ? null : Role.valueOf(role.toString()),
+                b);
+    }
+
+    /** The token_version the token was issued at, or null for tokens issued before the claim was added. */
+    public Integer tokenVersion(Claims claims) {
+        return claims.get(CLAIM_TOKEN_VERSION) instanceof Number n ? n.intValue() : null;
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -71,20 +151,33 @@ public class JwtService {
                 .setId(UUID.randomUUID().toString()) // JTI za blacklist
                 .setIssuedAt(iat)
                 .setExpiration(exp)
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String digest = signatureOf(token);
+        long now = System.currentTimeMillis();
+
+        CachedClaims cached = claimsCache.getIfPresent(digest);
+        if (cached != null) {
+            if (cached.expiresAtMs() > now && cached.token().equals(token)) {
+                return cached.claims();
+            }
+            claimsCache.asMap().remove(digest, cached);
+        }
+
+        // throws for bad signature or expired token, so only verified claims are cached
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date exp = claims.getExpiration();
+        if (exp != null) {
+            claimsCache.put(digest, new CachedClaims(token, claims, exp.getTime()));
+        }
+        return claims;
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String signatureOf(String token) {
+        int dot = token.lastIndexOf('.');
+        return dot >= 0 ? token.substring(dot + 1) : token;
     }
 }
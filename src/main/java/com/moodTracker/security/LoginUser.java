@@ -0,0 +1,68 @@
+package com.moodTracker.security;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * What {@code loadUserByUsername} returns: the principal plus the password hash the authentication
+ * provider checks. The hash is erased once authentication succeeds and never printed.
+ */
+public final class LoginUser implements UserDetails, CredentialsContainer {
+
+    private final AuthenticatedUser principal;
+    private final int tokenVersion;
+    private String password;
+
+    public LoginUser(AuthenticatedUser principal, String password, int tokenVersion) {
+        this.principal = principal;
+        this.password = password;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public AuthenticatedUser principal() {
+        return principal;
+    }
+
+    /** The users row's token_version at login, signed into the token. */
+    public int tokenVersion() {
+        return tokenVersion;
+    }
+
+    /** The principal without credentials, whichever kind of user details Spring Security handed over. */
+    public static UserDetails withoutCredentials(UserDetails userDetails) {
+        return userDetails instanceof LoginUser l ? l.principal : userDetails;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.getAuthorities();
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return principal.getUsername();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return principal.isEnabled();
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public String toString() {
+        return "LoginUser[" + principal + ", password=[PROTECTED]]";
+    }
+}
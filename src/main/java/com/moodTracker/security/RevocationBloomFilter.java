@@ -0,0 +1,62 @@
+package com.moodTracker.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over revocation keys. A negative answer is definite, so tokens that were
+ * never revoked skip the store lookup entirely.
+ */
+final class RevocationBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    RevocationBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, m);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+    }
+
+    void put(String key) {
+        long h1 = fnv1a(key);
+        long h2 = mix(h1);
+        for (int i = 0; i < hashCount; i++) {
+            long idx = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (idx >>> 6);
+            long mask = 1L << idx;
+            long prev;
+            do {
+                prev = bits.get(word);
+                if ((prev & mask) != 0) break;
+            } while (!bits.compareAndSet(word, prev, prev | mask));
+        }
+    }
+
+    boolean mightContain(String key) {
+        long h1 = fnv1a(key);
+        long h2 = mix(h1);
+        for (int i = 0; i < hashCount; i++) {
+            long idx = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (idx >>> 6)) & (1L << idx)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static long fnv1a(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return (z ^ (z >>> 31)) | 1; // odd, so consecutive probes never collapse onto one bit
+    }
+}
@@ -0,0 +1,23 @@
+package com.moodTracker.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Backing store for revoked token keys. Entries only need to live until the token itself expires.
+ */
+public interface RevocationStore {
+
+    void revoke(String key, Instant expiresAt);
+
+    boolean isRevoked(String key, Instant now);
+
+    /** Drop every entry that expired before {@code now}. */
+    void purgeExpired(Instant now);
+
+    /** All keys that are still revoked at {@code now}, used to rebuild the pre-check filter. */
+    List<String> liveKeys(Instant now);
+
+    /** Keys revoked by any node since {@code since}; empty for stores that are not shared. */
+    List<String> revokedSince(Instant since);
+}
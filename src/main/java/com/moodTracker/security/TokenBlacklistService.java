@@ -1,45 +1,124 @@
 package com.moodTracker.security;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HexFormat;
+import java.util.List;
 
 @Service
+@Slf4j
 public class TokenBlacklistService {
 
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
 
-    private final ConcurrentHashMap<String, Instant> revokedJti = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Instant> revokedHash = new ConcurrentHashMap<>();
+    private final RevocationStore store;
+    private final long expectedRevocations;
 
-    public void revoke(String token, String jti, java.time.Instant exp) {
-        if (jti != null) revokedJti.put(jti, exp);
-        revokedHash.put(sha256(token), exp);
+    // swapped wholesale on rebuild; adds go to whichever instance is current
+    private volatile RevocationBloomFilter jtiFilter;
+    // non-null while a sweep rebuilds the filter, so revocations made meanwhile are not lost
+    private volatile RevocationBloomFilter rebuilding;
+    private volatile Instant lastSync = Instant.now();
+
+    public TokenBlacklistService(RevocationStore store,
+                                 @Value("${jwt.revocation.expected-revocations:1000000}") long expectedRevocations) {
+        this.store = store;
+        this.expectedRevocations = expectedRevocations;
+        this.jtiFilter = buildFilter(Instant.now());
+    }
+
+    public void revoke(String token, String jti, Instant exp) {
+        if (jti != null) {
+            store.revoke(jtiKey(jti), exp);
+            addToFilter(jti);
+        } else {
+            // only tokens without a JTI need the hash, and we never issue those
+            store.revoke(hashKey(token), exp);
+        }
     }
 
     public boolean isRevoked(String token, String jti) {
-        var now = java.time.Instant.now();
-        // JTI check
+        var now = Instant.now();
         if (jti != null) {
-            var e = revokedJti.get(jti);
-            if (e != null && now.isBefore(e)) return true;
-            if (e != null && now.isAfter(e)) revokedJti.remove(jti);
+            // definite "no" for almost every request, without touching the store
+            if (!jtiFilter.mightContain(jti)) return false;
+            return store.isRevoked(jtiKey(jti), now);
         }
-        // hash check
-        var h = sha256(token);
-        var e2 = revokedHash.get(h);
-        if (e2 != null && now.isBefore(e2)) return true;
-        if (e2 != null && now.isAfter(e2)) revokedHash.remove(h);
-        return false;
+        return store.isRevoked(hashKey(token), now);
+    }
+
+    /**
+     * Pull revocations made by other instances into the local pre-check filter.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void syncFromStore() {
+        var now = Instant.now();
+        var since = lastSync;
+        lastSync = now;
+        // overlap absorbs clock skew between nodes; re-adding a key is harmless
+        for (String key : store.revokedSince(since.minus(SYNC_OVERLAP))) {
+            if (key.startsWith("j:")) addToFilter(key.substring(2));
+        }
+    }
+
+    /**
+     * Drop expired revocations and rebuild the filter so it only reflects live ones.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sweep-interval-ms:60000}")
+    public void sweep() {
+        var now = Instant.now();
+        store.purgeExpired(now);
+        rebuilding = newFilter(expectedRevocations);
+        var live = store.liveKeys(now);
+        jtiFilter = fill(rebuilding, live);
+        rebuilding = null;
+        log.debug("Revocation sweep done");
+    }
+
+    /*
+     * The key is already in the store, so read rebuilding before jtiFilter: if a rebuild is under way the
+     * key goes into its filter too, and if not, a later sweep either finds the key in liveKeys or has
+     * already swapped jtiFilter by the time it is read.
+     */
+    private void addToFilter(String jti) {
+        var next = rebuilding;
+        jtiFilter.put(jti);
+        if (next != null) next.put(jti);
+    }
+
+    private RevocationBloomFilter buildFilter(Instant now) {
+        var live = store.liveKeys(now);
+        return fill(newFilter(Math.max(expectedRevocations, live.size() * 2L)), live);
+    }
+
+    private static RevocationBloomFilter newFilter(long capacity) {
+        return new RevocationBloomFilter(capacity, BLOOM_FALSE_POSITIVE_RATE);
+    }
+
+    private static RevocationBloomFilter fill(RevocationBloomFilter filter, List<String> keys) {
+        for (String key : keys) {
+            if (key.startsWith("j:")) filter.put(key.substring(2));
+        }
+        return filter;
+    }
+
+    private static String jtiKey(String jti) {
+        return "j:" + jti;
     }
 
-    private String sha256(String s) {
+    private static String hashKey(String token) {
         try {
-            var md = java.security.MessageDigest.getInstance("SHA-256");
-            var bytes = md.digest(s.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            var sb = new StringBuilder();
-            for (byte b : bytes) sb.append(String.format("%02x", b));
-            return sb.toString();
-        } catch (Exception e) { throw new RuntimeException(e); }
+            var md = MessageDigest.getInstance("SHA-256");
+            return "h:" + HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) { throw new IllegalStateException(e); }
     }
 }
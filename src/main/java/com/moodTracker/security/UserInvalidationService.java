@@ -0,0 +1,82 @@
+package com.moodTracker.security;
+
+import com.moodTracker.repository.UserRepository;
+import com.moodTracker.repository.UserRepository.TokenCutoff;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users whose account state changed (disabled, role or password change) within the token lifetime. The change
+ * itself is recorded on the users row ({@code token_version}, {@code tokens_invalid_before}), so every instance
+ * sees it; each instance keeps a local copy of the recent ones, synced like the revocation filter, so stateless
+ * authentication does not query the database per request. Tokens issued before the change are rejected until
+ * they would have expired anyway.
+ */
+@Service
+public class UserInvalidationService {
+
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private final UserRepository userRepository;
+    private final Duration tokenLifetime;
+
+    private record Cutoff(int tokenVersion, Instant at) {}
+
+    private final ConcurrentHashMap<Long, Cutoff> cutoffs = new ConcurrentHashMap<>();
+    private volatile Instant lastSync;
+
+    public UserInvalidationService(UserRepository userRepository,
+                                   @Value("${jwt.expiration}") long jwtExpirationMs) {
+        this.userRepository = userRepository;
+        this.tokenLifetime = Duration.ofMillis(jwtExpirationMs);
+    }
+
+    @PostConstruct
+    void init() {
+        // changes older than the token lifetime cannot affect a live token
+        lastSync = Instant.now().minus(tokenLifetime);
+        syncFromStore();
+    }
+
+    /** Picks up a change this instance just committed without waiting for the next sync. */
+    public void refresh(Long userId) {
+        if (userId == null) return;
+        userRepository.findTokenCutoff(userId).ifPresent(this::record);
+    }
+
+    /**
+     * @param tokenVersion the token's version claim, or null for tokens issued before the claim existed
+     */
+    public boolean isInvalidated(Long userId, Date issuedAt, Integer tokenVersion) {
+        if (userId == null) return false;
+        Cutoff cutoff = cutoffs.get(userId);
+        if (cutoff == null) return false;
+        if (tokenVersion != null) return tokenVersion < cutoff.tokenVersion();
+        // iat has second precision, so a token from the same second as the change counts as issued before it
+        return issuedAt == null || !issuedAt.toInstant().isAfter(cutoff.at().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.invalidation.sync-interval-ms:5000}")
+    public void syncFromStore() {
+        var now = Instant.now();
+        var since = lastSync;
+        lastSync = now;
+        // overlap absorbs clock skew between nodes; recording a change twice is harmless
+        userRepository.findTokenCutoffsSince(since.minus(SYNC_OVERLAP)).forEach(this::record);
+        var expired = now.minus(tokenLifetime);
+        cutoffs.values().removeIf(c -> c.at().isBefore(expired));
+    }
+
+    private void record(TokenCutoff c) {
+        cutoffs.merge(c.getId(), new Cutoff(c.getTokenVersion(), c.getTokensInvalidBefore()),
+                (old, next) -> next.tokenVersion() >= old.tokenVersion() ? next : old);
+    }
+}
@@ -2,9 +2,11 @@ package com.moodTracker.service;
 
 import com.moodTracker.dto.AiPlan;
 import com.moodTracker.dto.MoodEntryAiResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface AiAdviceService {
 
-    MoodEntryAiResponse analyze(String email);
-    AiPlan generatePlan(String email);
+    MoodEntryAiResponse analyze(Long userId);
+    AiPlan generatePlan(Long userId);
+    SseEmitter streamPlan(Long userId);
 }
@@ -0,0 +1,12 @@
+package com.moodTracker.service;
+
+import com.moodTracker.dto.AiJobStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface AiJobService {
+
+    AiJobStatus submitAnalyze(Long userId);
+    AiJobStatus submitPlan(Long userId);
+    AiJobStatus getStatus(String jobId, Long userId);
+    SseEmitter subscribe(String jobId, Long userId);
+}
@@ -0,0 +1,16 @@
+package com.moodTracker.service;
+
+import java.util.Collection;
+
+public interface DataVersionService {
+
+    /**
+     * Version of the user's mood data; changes whenever an entry is created, updated, deleted or imported.
+     */
+    long current(Long userId);
+
+    void bump(Long userId);
+
+    /** One statement for all users, for bulk writers that touch many users at once. */
+    void bumpAll(Collection<Long> userIds);
+}
@@ -0,0 +1,19 @@
+package com.moodTracker.service;
+
+import com.moodTracker.dto.MoodEntryEvent;
+
+import java.util.List;
+
+public interface MoodEntryOutboxService {
+
+    /**
+     * Record the event in the outbox as part of the caller's transaction; no-op when the outbox is disabled.
+     */
+    void append(MoodEntryEvent event);
+
+    /** Same as {@link #append} for many events, as one JDBC batch. */
+    void appendAll(List<MoodEntryEvent> events);
+
+    /** False when events are dropped, so bulk writers can skip building them. */
+    boolean isEnabled();
+}
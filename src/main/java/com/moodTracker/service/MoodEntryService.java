@@ -3,6 +3,7 @@ package com.moodTracker.service;
 import com.moodTracker.dto.MoodEntryDto;
 import com.moodTracker.dto.MoodEntryRequest;
 import com.moodTracker.dto.MoodEntryResponse;
+import com.moodTracker.dto.MoodEntrySlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -10,11 +11,12 @@ import java.time.LocalDate;
 import java.util.List;
 
 public interface MoodEntryService {
-    MoodEntryResponse create(String userEmail, MoodEntryRequest req); // 409 ako postoji
-    MoodEntryResponse update(String userEmail, MoodEntryRequest req);
-    MoodEntryResponse getEntryForDate(String email, LocalDate date);
-    List<MoodEntryDto> getEntriesForDate(String email);
-    MoodEntryResponse getToday(String userEmail);
-    Page<MoodEntryResponse> getEntryForDateRange(String email, LocalDate start, LocalDate end, Pageable pageable);
-    String deleteById(String email, Long id);
+    MoodEntryResponse create(Long userId, MoodEntryRequest req); // 409 ako postoji
+    MoodEntryResponse update(Long userId, MoodEntryRequest req);
+    MoodEntryResponse getEntryForDate(Long userId, LocalDate date);
+    List<MoodEntryDto> getEntriesForDate(Long userId);
+    MoodEntryResponse getToday(Long userId);
+    Page<MoodEntryResponse> getEntryForDateRange(Long userId, LocalDate start, LocalDate end, Pageable pageable);
+    MoodEntrySlice getEntrySliceForDateRange(Long userId, LocalDate start, LocalDate end, String cursor, int size);
+    String deleteById(Long userId, Long id);
 }
@@ -0,0 +1,13 @@
+package com.moodTracker.service;
+
+import java.io.OutputStream;
+
+public interface MoodExportService {
+
+    enum Format { NDJSON, CSV }
+
+    /**
+     * Write every entry of the user, oldest first, to {@code out} a page at a time, without collecting them in memory.
+     */
+    void export(Long userId, Format format, OutputStream out);
+}
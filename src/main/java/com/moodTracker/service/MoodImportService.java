@@ -0,0 +1,13 @@
+package com.moodTracker.service;
+
+import com.moodTracker.dto.MoodImportResponse;
+
+import java.io.InputStream;
+
+public interface MoodImportService {
+
+    /**
+     * @param contentType application/json (array), application/x-ndjson or text/csv (date,moodScore,note)
+     */
+    MoodImportResponse importEntries(Long userId, InputStream body, String contentType);
+}
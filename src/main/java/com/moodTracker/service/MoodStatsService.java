@@ -0,0 +1,25 @@
+package com.moodTracker.service;
+
+import com.moodTracker.dto.MoodBucketsResponse;
+import com.moodTracker.dto.MoodStatsResponse;
+import com.moodTracker.repository.MoodEntryJdbcRepository.Granularity;
+import com.moodTracker.repository.MoodEntryJdbcRepository.UpsertRow;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface MoodStatsService {
+
+    List<MoodStatsResponse> getStats(Long userId);
+    MoodStatsResponse getWindow(Long userId, int windowDays);
+    MoodBucketsResponse getBuckets(Long userId, LocalDate start, LocalDate end, Granularity granularity);
+
+    void onEntryCreated(Long userId, LocalDate date, int score);
+    void onEntryUpdated(Long userId, LocalDate date, int oldScore, int newScore);
+    void onEntryDeleted(Long userId, LocalDate date, int score);
+    void recompute(Long userId);
+
+    /** Applies a batch of upserted entries, locking the users' rows in user id order. */
+    void onEntriesUpserted(Collection<UpsertRow> rows);
+}
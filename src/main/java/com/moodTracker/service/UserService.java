@@ -9,4 +9,5 @@ public interface UserService {
     void registerUser(RegisterRequest request);
     String login(LoginRequest request);
     String changePassword(ResetPasswordRequest request);
+    Long getUserId(String email);
 }
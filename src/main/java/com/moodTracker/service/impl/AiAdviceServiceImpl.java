@@ -1,40 +1,75 @@
 package com.moodTracker.service.impl;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.moodTracker.dto.AiPlan;
 import com.moodTracker.dto.MoodEntryAiResponse;
 import com.moodTracker.dto.MoodEntryDto;
+import com.moodTracker.config.StringListJsonConverter;
 import com.moodTracker.entity.AiAnalysis;
-import com.moodTracker.entity.User;
 import com.moodTracker.repository.AiAnalysisRepository;
-import com.moodTracker.repository.UserRepository;
 import com.moodTracker.service.AiAdviceService;
+import com.moodTracker.service.DataVersionService;
 import com.moodTracker.service.MoodEntryService;
+import com.moodTracker.service.MoodStatsService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.common.errors.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Observed
 public class AiAdviceServiceImpl implements AiAdviceService {
 
-    private final RestTemplate restTemplate;
+    // bump when a prompt template changes, so cached responses to the old prompt are not reused
+    private static final String ANALYZE_PROMPT_VERSION = "analyze-v1";
+    private static final String PLAN_PROMPT_VERSION = "plan-v1";
+    private static final StringListJsonConverter SUGGESTIONS = new StringListJsonConverter();
+
+    @Qualifier("aiAnalyzeRestTemplate")
+    private final RestTemplate analyzeRestTemplate;
+    @Qualifier("aiPlanRestTemplate")
+    private final RestTemplate planRestTemplate;
     private final ObjectMapper om;
     private final MoodEntryService moodEntryService;
-    private final UserRepository userRepository;
+    private final MoodStatsService moodStatsService;
+    private final DataVersionService dataVersionService;
     private final AiAnalysisRepository aiAnalysisRepository;
+    private final HedgedRequestExecutor hedgedRequestExecutor;
+    private final AiResponseCache aiResponseCache;
+    private final OpenRouterMetrics metrics;
+    private final ObservationRegistry observationRegistry;
+    private final PlatformTransactionManager transactionManager;
+    @Qualifier("aiExecutor")
+    private final ExecutorService aiExecutor;
 
     @Value("${openrouter.base-url}")
     private String baseUrl;
@@ -54,74 +89,77 @@ public class AiAdviceServiceImpl implements AiAdviceService {
     @Value("${openrouter.fallback-model}")
     private String fallbackModel;
 
-    @Override
-    public MoodEntryAiResponse analyze(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + email));
+    @Value("${openrouter.hedge-delay.analyze:5s}")
+    private Duration analyzeHedgeDelay;
 
-        List<MoodEntryDto> entries = moodEntryService.getEntriesForDate(email).stream()
-                .filter(e -> e.getEntryDate() != null)
-                .sorted(Comparator.comparing(MoodEntryDto::getEntryDate).reversed())
-                .limit(30)
-                .toList();
+    @Value("${openrouter.hedge-delay.plan:12s}")
+    private Duration planHedgeDelay;
+
+    @Value("${openrouter.deadline.analyze:45s}")
+    private Duration analyzeDeadline;
+
+    @Value("${openrouter.deadline.plan:60s}")
+    private Duration planDeadline;
 
-        double avg = entries.stream().mapToInt(MoodEntryDto::getMoodScore).average().orElse(0.0);
-        double avgRounded = BigDecimal.valueOf(avg).setScale(1, RoundingMode.HALF_UP).doubleValue();
+    @Value("${ai.analysis.max-age:24h}")
+    private Duration analysisMaxAge;
+
+    // the gather phase only reads: no row locks, and Hibernate skips the dirty check and flush
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    /*
+     * analyze runs in three phases so no pooled connection is held while the models answer: one short read-only
+     * transaction looks up a stored analysis or gathers the entries and the average, the AI calls run without a
+     * connection, and the result is written back with a single upsert. An analysis stored for the current data
+     * version (usually by the nightly AiPrecomputeJob) is returned as is.
+     */
+    @Override
+    public MoodEntryAiResponse analyze(Long userId) {
+        AnalyzeInput input = readOnlyTx.execute(status -> gatherAnalyzeInput(userId));
+        if (input.stored() != null) {
+            log.info("Entries unchanged since the stored analysis for user {}, returning it", userId);
+            return input.stored();
+        }
+        List<MoodEntryDto> entries = input.entries();
+        double avgRounded = input.average();
 
         if (entries.isEmpty()) {
             return new MoodEntryAiResponse(0.0, "No entries in last 30 days.", List.of());
         }
 
-        log.info("Analyzing condition of the user: {} {}", user.getFirstName(), user.getLastName());
-
-        // JSON payload for AI model
-        String payload = entries.stream()
-                .map(e -> String.format(Locale.ROOT,
-                        "{\"date\":\"%s\",\"rating\":%d,\"note\":%s}",
-                        e.getEntryDate(), e.getMoodScore(),
-                        e.getNote() == null ? "null" : "\"" + e.getNote().replace("\"", "\\\"") + "\""))
-                .reduce((a, b) -> a + ",\n" + b)
-                .orElse("");
-
-        // prompt + mini example (few-shot) + demand the STRICT JSON
-        String prompt = """
-                You are an assistant that outputs STRICT JSON only.
-                Analyze the mood logs (array of {"date","rating","note"}). Output Serbian.
-                Return ONLY a valid JSON object:
-                {
-                  "summary": "<summary in english language, max 120 words, without generic phrases>",
-                  "suggestions": ["three concrete seps, 6–14 words each, without empty strings"]
-                }
-                
-                Example input:
-                [{"date":"2025-08-01","rating":2,"note":"Stress at work, not enough sleep"},
-                 {"date":"2025-08-02","rating":4,"note":"Walk and hanging out with friends"}]
-                Example output:
-                        {
-                          "summary": "Mood fluctuates; sleep and physical activity improve overall tone.",
-                          "suggestions": [
-                            "Set a fixed bedtime for 7–8 hours of sleep",
-                            "Take a 10–15 minute walk after work",
-                            "Record daily stress triggers and responses",
-                            "Schedule a brief social activity twice a week",
-                            "Practice a 5-minute breathing exercise each morning"
-                          ]
-                        }
-                Now analyze these logs and produce JSON only:
-                [%s]
-                """.formatted(payload);
-
-        // 1. attempt – better free model
-        Advice adv = callOpenRouterOnce("meta-llama/llama-3.1-8b-instruct:free", prompt, 0.6, 500);
-        // 2. fallback – second free model, if the first didn't respond well
-        if (adv == null || adv.summary.isBlank() || adv.suggestions.stream().allMatch(String::isBlank)) {
-            adv = callOpenRouterOnce("mistralai/mistral-7b-instruct:free", prompt, 0.7, 600);
-        }
-        // 3. Last shot with higher temperature of the same model to eliminate empty strings
-        if (adv == null || adv.summary.isBlank() || adv.suggestions.stream().allMatch(String::isBlank)) {
-            adv = callOpenRouterOnce("meta-llama/llama-3.1-8b-instruct:free", prompt, 0.9, 650);
+        log.info("Analyzing condition of the user {}", userId);
+
+        String prompt = AiPrompts.analyzePrompt(entries);
+
+        // better free model first, then a second free model, then the first one again with higher temperature;
+        // hedged, so a slow or failing attempt does not make the user wait for the whole chain
+        List<HedgedRequestExecutor.Attempt<Advice>> attempts = List.of(
+                attempt("meta-llama/llama-3.1-8b-instruct:free", () -> callOpenRouterOnce("meta-llama/llama-3.1-8b-instruct:free", prompt, 0.6, 500)),
+                attempt("mistralai/mistral-7b-instruct:free", () -> callOpenRouterOnce("mistralai/mistral-7b-instruct:free", prompt, 0.7, 600)),
+                attempt("meta-llama/llama-3.1-8b-instruct:free", () -> callOpenRouterOnce("meta-llama/llama-3.1-8b-instruct:free", prompt, 0.9, 650))
+        );
+
+        // the prompt embeds every entry in the window, so hashing it covers the whole entry set
+        String cacheKey = AiResponseCache.key(ANALYZE_PROMPT_VERSION, modelsOf(attempts), prompt);
+        Optional<MoodEntryAiResponse> cached = aiResponseCache.getAnalysis(userId, cacheKey);
+        if (cached.isPresent()) {
+            // the stored analysis was not current (see gatherAnalyzeInput), so move it to this data version;
+            // otherwise the nightly job keeps picking the user up and the next request misses again
+            log.info("Entries unchanged for user {}, returning cached AI analysis", userId);
+            store(userId, cached.get(), input.dataVersion());
+            return cached.get();
         }
 
+        Advice adv = hedgedRequestExecutor.firstValid("analyze", attempts,
+                a -> !a.summary.isBlank() && !a.suggestions.stream().allMatch(String::isBlank),
+                analyzeHedgeDelay, analyzeDeadline).orElse(null);
+
         if (adv == null) {
             log.error("Could not generate summary from Open AI");
             return new MoodEntryAiResponse(avgRounded, "", List.of());
@@ -137,116 +175,65 @@ public class AiAdviceServiceImpl implements AiAdviceService {
 
         MoodEntryAiResponse moodEntryAiResponse = new MoodEntryAiResponse(avgRounded, adv.summary.trim(), cleaned);
 
-        Optional<AiAnalysis> previousAdvice = aiAnalysisRepository.findByUserId(user.getId());
-
-        if (previousAdvice.isEmpty()) {
-            AiAnalysis response = AiAnalysis.builder()
-                    .user(user)
-                    .average(BigDecimal.valueOf(avgRounded))
-                    .summary(adv.summary)
-                    .suggestions(List.of(String.valueOf(cleaned)))
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            log.info("Creating the AI response for {}", user.getEmail());
-
-            aiAnalysisRepository.save(response);
-        } else {
-            AiAnalysis existing = previousAdvice.get();
-            existing.setAverage(BigDecimal.valueOf(avgRounded));
-            existing.setSummary(adv.summary.trim());
-            existing.setSuggestions(cleaned);
-            existing.setCreatedAt(LocalDateTime.now());
-
-            log.info("Updating AI response for {}", user.getEmail());
-            aiAnalysisRepository.save(existing);
-        }
+        log.info("Saving the AI response for user {}", userId);
+        store(userId, moodEntryAiResponse, input.dataVersion());
 
+        aiResponseCache.putAnalysis(userId, cacheKey, moodEntryAiResponse);
         return moodEntryAiResponse;
     }
 
+    private void store(Long userId, MoodEntryAiResponse response, long dataVersion) {
+        aiAnalysisRepository.upsert(userId, BigDecimal.valueOf(response.average()), response.summary(),
+                SUGGESTIONS.convertToDatabaseColumn(response.suggestions()), LocalDateTime.now(), dataVersion);
+    }
+
+    private record AnalyzeInput(MoodEntryAiResponse stored, List<MoodEntryDto> entries, double average,
+                                long dataVersion) {}
+
+    private AnalyzeInput gatherAnalyzeInput(Long userId) {
+        Optional<AiAnalysis> stored = aiAnalysisRepository.findCurrent(userId, LocalDateTime.now().minus(analysisMaxAge));
+        if (stored.isPresent()) {
+            AiAnalysis a = stored.get();
+            var response = new MoodEntryAiResponse(a.getAverage().doubleValue(), a.getSummary(), a.getSuggestions());
+            return new AnalyzeInput(response, List.of(), 0.0, 0L);
+        }
+
+        List<MoodEntryDto> entries = moodEntryService.getEntriesForDate(userId).stream()
+                .filter(e -> e.getEntryDate() != null)
+                .sorted(Comparator.comparing(MoodEntryDto::getEntryDate).reversed())
+                .limit(30)
+                .toList();
+
+        // same 30-day window as the entries above, served from the rolling aggregate
+        return new AnalyzeInput(null, entries, moodStatsService.getWindow(userId, 30).average(),
+                dataVersionService.current(userId));
+    }
+
     @Override
-    public AiPlan generatePlan(String email) {
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + email));
-
-        AiAnalysis a = aiAnalysisRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new IllegalStateException("No saved AI analysis for user " + user.getId()));
-
-        log.info("Generating the plan from Open AI for {} {}", user.getFirstName(), user.getLastName());
-
-        String language = "en";
-        int days = 7;
-
-        String target = a.getAverage().doubleValue() >= 4.0 ? "maintain" : "improve";
-
-        String bullets = a.getSuggestions().stream()
-                .map(s -> "• " + s)
-                .collect(java.util.stream.Collectors.joining("\n"));
-
-        String dayLabel = "en".equalsIgnoreCase(language) ? "Day" : "Dan";
-
-        String prompt = """
-                Language: %s
-                Horizon days: %d
-                Target: %s  // maintain | improve
-                
-                Analysis:
-                average = %.1f
-                summary = %s
-                suggestions:
-                %s
-                
-                Task:
-                Create a %d-day plan as PLAIN TEXT in %s, labeled "%s 1" to "%s %d".
-                Each day must have 3–5 actionable bullet points (<= 15 words each) and ONE short reflection question.
-                Constraints:
-                - Use the suggestions above as backbone.
-                - Practical, supportive tone. No medical diagnoses or alarms.
-                - If target=maintain: focus on sustaining good habits. If improve: gentle recovery steps.
-                - Output PLAIN TEXT only (no JSON, no code fences, no extra meta text).
-                """.formatted(
-                language, days, target,
-                a.getAverage().doubleValue(), a.getSummary(), bullets,
-                days, language, dayLabel, dayLabel, days
-        );
+    public AiPlan generatePlan(Long userId) {
 
-        // candidates: primary + fallback from properties + extra :free models
-        List<String> candidates = new ArrayList<>();
-        if (model != null && !model.isBlank()) candidates.add(model.trim());
-        if (fallbackModel != null && !fallbackModel.isBlank()) candidates.add(fallbackModel.trim());
-        candidates.addAll(List.of(
-                "meta-llama/llama-3.2-3b-instruct:free",
-                "mistralai/mistral-7b-instruct:free",
-                "qwen/qwen2.5-7b-instruct:free"
-        ));
+        AiAnalysis a = aiAnalysisRepository.findByUserId(userId)
+                .orElseThrow(() -> new IllegalStateException("No saved AI analysis for user " + userId));
 
-        // remove duplicates and empty spaces
-        candidates = candidates.stream().filter(s -> s != null && !s.isBlank()).distinct().toList();
+        log.info("Generating the plan from Open AI for user {}", userId);
 
-        String planText = null;
-        for (String m : candidates) {
-            try {
-                planText = callOpenRouterText(m, prompt, 0.8, 1100);
+        String prompt = AiPrompts.planPrompt(a);
+        List<String> candidates = planCandidates();
 
-                if (planText != null && !planText.isBlank()) {
-                    log.warn("Plan from AI is generated successfully...");
-                } else {
-                    break;
-                }
-            } catch (org.springframework.web.client.HttpClientErrorException e) {
-                int sc = e.getStatusCode().value();
-                if (sc == 404 || sc == 400 || sc == 429) {
-                    log.warn("Response Status Code from AI is not 200. Trying with different model...");
-                    continue;
-                }
-                throw e;
-            } catch (org.springframework.web.client.ResourceAccessException timeout) {
-                log.warn("Timeout for AI Response. Trying with different model...");
-                continue;
-            }
+        // 400/404/429 and timeouts fail an attempt, which starts the next candidate right away
+        List<HedgedRequestExecutor.Attempt<String>> attempts = candidates.stream()
+                .map(m -> attempt(m, () -> callOpenRouterText(m, prompt, 0.8, 1100)))
+                .toList();
+        String cacheKey = AiResponseCache.key(PLAN_PROMPT_VERSION, String.join(",", candidates), prompt);
+        Optional<AiPlan> cached = aiResponseCache.getPlan(userId, cacheKey);
+        if (cached.isPresent()) {
+            log.info("Saved analysis unchanged for user {}, returning cached plan", userId);
+            return cached.get();
         }
 
+        String planText = hedgedRequestExecutor.firstValid("plan", attempts, t -> !t.isBlank(), planHedgeDelay, planDeadline)
+                .orElse(null);
+
         if (planText == null || planText.isBlank()) {
             log.error("Plan generation temporarily unavailable. Please try again shortly.");
             throw new IllegalStateException("Plan generation temporarily unavailable. Please try again shortly.");
@@ -254,12 +241,130 @@ public class AiAdviceServiceImpl implements AiAdviceService {
 
         AiPlan plan = new AiPlan();
         plan.setResponse(planText.trim());
-        log.info("\nPlan generated: \n{}", plan.getResponse());
+        log.debug("\nPlan generated: \n{}", plan.getResponse());
+        aiResponseCache.putPlan(userId, cacheKey, plan);
         return plan;
     }
 
+    @Override
+    public SseEmitter streamPlan(Long userId) {
+        AiAnalysis a = aiAnalysisRepository.findByUserId(userId)
+                .orElseThrow(() -> new IllegalStateException("No saved AI analysis for user " + userId));
+
+        String prompt = AiPrompts.planPrompt(a);
+        List<String> candidates = planCandidates();
+        String cacheKey = AiResponseCache.key(PLAN_PROMPT_VERSION, String.join(",", candidates), prompt);
+
+        SseEmitter emitter = new SseEmitter(planDeadline.toMillis());
+        Optional<AiPlan> cached = aiResponseCache.getPlan(userId, cacheKey);
+        if (cached.isPresent()) {
+            try {
+                emitter.send(SseEmitter.event().name("token").data(cached.get().getResponse()));
+                emitter.send(SseEmitter.event().name("done").data(""));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return emitter;
+        }
+
+        log.info("Streaming the plan from Open AI for user {}", userId);
+        try {
+            // the stream runs on the AI executor; keep its spans under this request
+            Observation parent = observationRegistry.getCurrentObservation();
+            aiExecutor.execute(() -> streamPlanTo(emitter, userId, prompt, candidates, cacheKey, parent));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "AI queue is full. Please try again shortly.");
+        }
+        return emitter;
+    }
+
+    private void streamPlanTo(SseEmitter emitter, Long userId, String prompt, List<String> candidates, String cacheKey,
+                              Observation parent) {
+        int attempts = 0;
+        for (String m : candidates) {
+            // same per-model limit as the hedged calls, so streams cannot push a model into 429s
+            if (!hedgedRequestExecutor.tryAcquire(m)) {
+                log.warn("Model {} is at its concurrency limit, skipping to the next candidate", m);
+                continue;
+            }
+            boolean[] started = {false};
+            attempts++;
+            try {
+                String planText = Observation.createNotStarted("openrouter.attempt", observationRegistry)
+                        .parentObservation(parent)
+                        .contextualName("plan-stream " + m)
+                        .lowCardinalityKeyValue("operation", "plan-stream")
+                        .lowCardinalityKeyValue("model", m)
+                        .highCardinalityKeyValue("attempt", Integer.toString(attempts - 1))
+                        .observe(() -> streamOpenRouterText(m, prompt, 0.8, 1100, token -> {
+                            started[0] = true;
+                            try {
+                                emitter.send(SseEmitter.event().name("token").data(token));
+                            } catch (IOException e) {
+                                throw new ClientDisconnectedException(e);
+                            }
+                        }));
+                if (planText == null || planText.isBlank()) continue;
+
+                AiPlan plan = new AiPlan(planText.trim());
+                log.debug("\nPlan streamed: \n{}", plan.getResponse());
+                aiResponseCache.putPlan(userId, cacheKey, plan);
+                metrics.attempts("plan-stream", attempts, true);
+                emitter.send(SseEmitter.event().name("done").data(""));
+                emitter.complete();
+                return;
+            } catch (Exception e) {
+                if (e instanceof IOException || isClientDisconnect(e)) {
+                    // client went away; nothing left to send to
+                    log.info("Plan stream closed by client for user {}", userId);
+                    return;
+                }
+                // once tokens reached the client another model would produce a mixed text
+                if (started[0]) {
+                    metrics.attempts("plan-stream", attempts, false);
+                    emitter.completeWithError(e);
+                    return;
+                }
+                log.warn("Streaming plan with {} failed before the first token. Trying with different model...", m);
+            } finally {
+                hedgedRequestExecutor.release(m);
+            }
+        }
+        metrics.attempts("plan-stream", attempts, false);
+        try {
+            emitter.send(SseEmitter.event().name("error").data("Plan generation temporarily unavailable. Please try again shortly."));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
     /* ===================== Helpers ===================== */
 
+    private List<String> planCandidates() {
+        // candidates: primary + fallback from properties + extra :free models
+        List<String> candidates = new ArrayList<>();
+        if (model != null && !model.isBlank()) candidates.add(model.trim());
+        if (fallbackModel != null && !fallbackModel.isBlank()) candidates.add(fallbackModel.trim());
+        candidates.addAll(List.of(
+                "meta-llama/llama-3.2-3b-instruct:free",
+                "mistralai/mistral-7b-instruct:free",
+                "qwen/qwen2.5-7b-instruct:free"
+        ));
+
+        // remove duplicates and empty spaces
+        return candidates.stream().filter(s -> s != null && !s.isBlank()).distinct().toList();
+    }
+
+    private static String modelsOf(List<? extends HedgedRequestExecutor.Attempt<?>> attempts) {
+        return attempts.stream().map(HedgedRequestExecutor.Attempt::model).collect(Collectors.joining(","));
+    }
+
+    private static <T> HedgedRequestExecutor.Attempt<T> attempt(String model, Callable<T> call) {
+        return new HedgedRequestExecutor.Attempt<>(model, call);
+    }
+
     private static class Advice {
         final String summary;
         final List<String> suggestions;
@@ -284,21 +389,20 @@ public class AiAdviceServiceImpl implements AiAdviceService {
                 )
         );
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-        headers.add("HTTP-Referer", referer);
-        headers.add("X-Title", title);
+        HttpHeaders headers = openRouterHeaders();
 
+        Timer.Sample sample = metrics.start();
+        String outcome = OpenRouterMetrics.EMPTY;
         try {
-            ResponseEntity<String> resp = restTemplate.exchange(
+            ResponseEntity<String> resp = analyzeRestTemplate.exchange(
                     baseUrl + "/chat/completions",
                     HttpMethod.POST,
                     new HttpEntity<>(body, headers),
                     String.class
             );
-            String assistant = extractAssistantContent(resp.getBody());
-            String json = extractJson(assistant);
+            AiPrompts.Completion completion = AiPrompts.parseCompletion(om, resp.getBody());
+            metrics.tokens(model, completion.usage());
+            String json = AiPrompts.extractJson(completion.content());
             if (json == null || json.isBlank() || "{}".equals(json)) return null;
 
             JsonNode node = om.readTree(json);
@@ -310,9 +414,13 @@ public class AiAdviceServiceImpl implements AiAdviceService {
                 if (!v.isEmpty()) suggestions.add(v);
             });
             if (summary.isBlank() || suggestions.isEmpty()) return null;
+            outcome = OpenRouterMetrics.SUCCESS;
             return new Advice(summary, suggestions);
         } catch (Exception e) {
+            outcome = OpenRouterMetrics.outcomeOf(e);
             return null;
+        } finally {
+            metrics.stop(sample, "analyze", model, outcome);
         }
     }
 
@@ -328,51 +436,111 @@ public class AiAdviceServiceImpl implements AiAdviceService {
                 )
         );
 
+        HttpHeaders h = openRouterHeaders();
+
+        Timer.Sample sample = metrics.start();
+        String outcome = OpenRouterMetrics.EMPTY;
+        try {
+            ResponseEntity<String> resp = planRestTemplate.exchange(
+                    baseUrl + "/chat/completions",
+                    HttpMethod.POST,
+                    new HttpEntity<>(body, h),
+                    String.class
+            );
+            AiPrompts.Completion completion = AiPrompts.parseCompletion(om, resp.getBody());
+            metrics.tokens(model, completion.usage());
+            if (!completion.content().isBlank()) outcome = OpenRouterMetrics.SUCCESS;
+            return completion.content();
+        } catch (RuntimeException e) {
+            outcome = OpenRouterMetrics.outcomeOf(e);
+            throw e;
+        } finally {
+            metrics.stop(sample, "plan", model, outcome);
+        }
+    }
+
+    private HttpHeaders openRouterHeaders() {
         HttpHeaders h = new HttpHeaders();
         h.setContentType(MediaType.APPLICATION_JSON);
         h.setBearerAuth(apiKey);
         h.add("HTTP-Referer", referer);
         h.add("X-Title", title);
-
-        ResponseEntity<String> resp = restTemplate.exchange(
-                baseUrl + "/chat/completions",
-                HttpMethod.POST,
-                new HttpEntity<>(body, h),
-                String.class
-        );
-        return extractAssistantContent(resp.getBody());
+        return h;
     }
 
     /**
-     * Retrieve assistant message content from OpenRouter/OpenAI response.
+     * Stream a plain-text completion ({@code stream: true}) and hand each content delta to {@code onToken}
+     * as it arrives. The SSE body is read line by line, never buffered whole. Returns the assembled text.
      */
-    private String extractAssistantContent(String body) {
-        if (body == null || body.isBlank()) return "";
+    private String streamOpenRouterText(String model, String prompt, double temperature, int maxTokens,
+                                        TokenSink onToken) {
+        Map<String, Object> body = Map.of(
+                "model", model,
+                "temperature", temperature,
+                "max_tokens", maxTokens,
+                "stream", true,
+                // ask for the usage block in the final chunk
+                "usage", Map.of("include", true),
+                "messages", List.of(
+                        Map.of("role", "system",
+                                "content", "You are a supportive wellbeing coach. Output PLAIN TEXT only, no JSON, no code fences."),
+                        Map.of("role", "user", "content", prompt)
+                )
+        );
+
+        Timer.Sample sample = metrics.start();
+        String[] outcome = {OpenRouterMetrics.EMPTY};
         try {
-            Map<String, Object> root = om.readValue(body, new TypeReference<>() {
-            });
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) root.get("choices");
-            if (choices == null || choices.isEmpty()) return "";
-            Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-            return message == null ? "" : String.valueOf(message.getOrDefault("content", ""));
-        } catch (Exception e) {
-            return "";
+            return planRestTemplate.execute(
+                    baseUrl + "/chat/completions",
+                    HttpMethod.POST,
+                    planRestTemplate.httpEntityCallback(new HttpEntity<>(body, openRouterHeaders())),
+                    response -> {
+                        StringBuilder full = new StringBuilder();
+                        try (var reader = new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                            String line;
+                            while ((line = reader.readLine()) != null) {
+                                // OpenRouter also sends ": OPENROUTER PROCESSING" keep-alive comments
+                                if (!line.startsWith("data:")) continue;
+                                String data = line.substring(5).trim();
+                                if ("[DONE]".equals(data)) break;
+
+                                JsonNode chunk = om.readTree(data);
+                                if (chunk.hasNonNull("usage")) {
+                                    metrics.tokens(model, AiPrompts.usageOf(om.convertValue(chunk.get("usage"), Map.class)));
+                                }
+                                String delta = chunk.path("choices").path(0).path("delta").path("content").asText("");
+                                if (!delta.isEmpty()) {
+                                    full.append(delta);
+                                    onToken.accept(delta);
+                                }
+                            }
+                        }
+                        if (!full.isEmpty()) outcome[0] = OpenRouterMetrics.SUCCESS;
+                        return full.toString();
+                    });
+        } catch (RuntimeException e) {
+            outcome[0] = isClientDisconnect(e) ? OpenRouterMetrics.CLIENT_CLOSED : OpenRouterMetrics.outcomeOf(e);
+            throw e;
+        } finally {
+            metrics.stop(sample, "plan-stream", model, outcome[0]);
         }
     }
 
-    /**
-     * Remove ```json fence-ove and return contend of JSON object if exist.
-     */
-    private static String extractJson(String content) {
-        if (content == null) return "{}";
-        String c = content.trim();
-        if (c.startsWith("```")) {
-            int first = c.indexOf('{');
-            int last = c.lastIndexOf('}');
-            if (first >= 0 && last > first) return c.substring(first, last + 1);
+    /** RestTemplate wraps an IOException thrown by the response extractor in a ResourceAccessException. */
+    private static boolean isClientDisconnect(Throwable e) {
+        return e instanceof ResourceAccessException && e.getCause() instanceof ClientDisconnectedException;
+    }
+
+    @FunctionalInterface
+    private interface TokenSink {
+        void accept(String token) throws IOException;
+    }
+
+    /** Writing a token to our own client failed, as opposed to reading from OpenRouter. */
+    private static final class ClientDisconnectedException extends IOException {
+        ClientDisconnectedException(IOException cause) {
+            super(cause);
         }
-        int first = c.indexOf('{');
-        int last = c.lastIndexOf('}');
-        return (first >= 0 && last > first) ? c.substring(first, last + 1) : "{}";
     }
 }
@@ -0,0 +1,190 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodTracker.dto.AiJobStatus;
+import com.moodTracker.repository.AiJobRepository;
+import com.moodTracker.repository.AiJobRepository.AiJobRow;
+import com.moodTracker.service.AiAdviceService;
+import com.moodTracker.service.AiJobService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Async AI jobs. State and results are kept in {@code ai_jobs}, so any instance answers a poll and finished
+ * jobs survive a restart; only the run itself and the SSE subscribers are local. Subscribers are notified
+ * when a local job finishes, and otherwise by a short poll of the table.
+ */
+@Service
+@Slf4j
+public class AiJobServiceImpl implements AiJobService {
+
+    private static final String PENDING = "PENDING";
+    private static final String RUNNING = "RUNNING";
+    private static final String DONE = "DONE";
+    private static final String FAILED = "FAILED";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final AiAdviceService aiAdviceService;
+    private final AiJobRepository aiJobRepository;
+    private final ObjectMapper om;
+    private final ExecutorService aiExecutor;
+    private final Duration retention;
+    private final Duration abandonAfter;
+    private final long sseTimeoutMs;
+
+    // SSE subscribers on this instance, by job id
+    private final ConcurrentHashMap<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public AiJobServiceImpl(AiAdviceService aiAdviceService,
+                            AiJobRepository aiJobRepository,
+                            ObjectMapper om,
+                            @Qualifier("aiExecutor") ExecutorService aiExecutor,
+                            @Value("${ai.jobs.retention:30m}") Duration retention,
+                            @Value("${ai.jobs.abandon-after:10m}") Duration abandonAfter,
+                            @Value("${ai.jobs.sse-timeout:3m}") Duration sseTimeout) {
+        this.aiAdviceService = aiAdviceService;
+        this.aiJobRepository = aiJobRepository;
+        this.om = om;
+        this.aiExecutor = aiExecutor;
+        this.retention = retention;
+        this.abandonAfter = abandonAfter;
+        this.sseTimeoutMs = sseTimeout.toMillis();
+    }
+
+    @Override
+    public AiJobStatus submitAnalyze(Long userId) {
+        return submit("analyze", userId, () -> aiAdviceService.analyze(userId));
+    }
+
+    @Override
+    public AiJobStatus submitPlan(Long userId) {
+        return submit("plan", userId, () -> aiAdviceService.generatePlan(userId));
+    }
+
+    @Override
+    public AiJobStatus getStatus(String jobId, Long userId) {
+        return toStatus(find(jobId, userId));
+    }
+
+    @Override
+    public SseEmitter subscribe(String jobId, Long userId) {
+        AiJobRow job = find(jobId, userId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        if (job.finishedAt() != null) {
+            send(emitter, toStatus(job));
+            return emitter;
+        }
+        subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> unsubscribe(jobId, emitter));
+        emitter.onTimeout(() -> unsubscribe(jobId, emitter));
+        return emitter;
+    }
+
+    /** Completes subscribers whose job finished on another instance, or raced with {@link #subscribe}. */
+    @Scheduled(fixedDelayString = "${ai.jobs.poll-interval-ms:1000}")
+    public void notifyFinishedJobs() {
+        if (subscribers.isEmpty()) return;
+        aiJobRepository.findFinished(List.copyOf(subscribers.keySet())).forEach(this::notifySubscribers);
+    }
+
+    @Scheduled(fixedDelayString = "${ai.jobs.cleanup-interval-ms:60000}")
+    public void removeFinishedJobs() {
+        Instant now = Instant.now();
+        aiJobRepository.deleteFinishedBefore(now.minus(retention));
+        int abandoned = aiJobRepository.failAbandoned(now.minus(abandonAfter), FAILED,
+                "The job was interrupted. Please submit it again.", now);
+        if (abandoned > 0) log.warn("Marked {} abandoned AI jobs as failed", abandoned);
+    }
+
+    private AiJobStatus submit(String type, Long userId, Supplier<Object> work) {
+        String id = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        aiJobRepository.insert(id, userId, type, PENDING, now);
+        try {
+            aiExecutor.execute(() -> run(id, type, work));
+        } catch (RejectedExecutionException e) {
+            aiJobRepository.delete(id);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "AI queue is full. Please try again shortly.");
+        }
+        log.info("Submitted AI {} job {}", type, id);
+        return new AiJobStatus(id, type, PENDING, now, null, null, null);
+    }
+
+    private void run(String id, String type, Supplier<Object> work) {
+        aiJobRepository.updateStatus(id, RUNNING);
+        try {
+            String result = om.writeValueAsString(work.get());
+            aiJobRepository.finish(id, DONE, result, null, Instant.now());
+        } catch (Exception e) {
+            log.error("AI {} job {} failed: {}", type, id, e.getMessage());
+            aiJobRepository.finish(id, FAILED, null, truncate(e.getMessage()), Instant.now());
+        }
+        aiJobRepository.findFinished(List.of(id)).forEach(this::notifySubscribers);
+    }
+
+    private AiJobRow find(String jobId, Long userId) {
+        // someone else's job looks exactly like a missing one
+        return aiJobRepository.find(jobId, userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found: " + jobId));
+    }
+
+    /* ===================== Helpers ===================== */
+
+    private void notifySubscribers(AiJobRow job) {
+        List<SseEmitter> emitters = subscribers.remove(job.id());
+        if (emitters == null) return;
+        AiJobStatus status = toStatus(job);
+        emitters.forEach(e -> send(e, status));
+    }
+
+    private void unsubscribe(String jobId, SseEmitter emitter) {
+        subscribers.computeIfPresent(jobId, (id, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private AiJobStatus toStatus(AiJobRow job) {
+        Object result = null;
+        if (job.result() != null) {
+            try {
+                result = om.readTree(job.result());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unreadable result for AI job " + job.id(), e);
+            }
+        }
+        return new AiJobStatus(job.id(), job.type(), job.status(), job.submittedAt(), job.finishedAt(), result, job.error());
+    }
+
+    private static void send(SseEmitter emitter, AiJobStatus status) {
+        try {
+            emitter.send(SseEmitter.event().name(status.status().toLowerCase()).data(status));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) return message;
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,218 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.dto.MoodEntryAiResponse;
+import com.moodTracker.repository.AiAnalysisRepository;
+import com.moodTracker.repository.AiAnalysisRepository.StaleAnalysis;
+import com.moodTracker.repository.ScheduledJobRepository;
+import com.moodTracker.repository.ScheduledJobRepository.JobState;
+import com.moodTracker.service.AiAdviceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Off-peak pre-computation of AI analyses, so the morning {@code /ai/analyze} is mostly a read of the stored row.
+ * Walks users whose analysis is missing or older than their data version in id order, with bounded concurrency
+ * and a start-rate ceiling toward OpenRouter. Only the instance holding the {@code scheduled_jobs} lease runs it.
+ * The lease is renewed before each user is started, so it only has to outlast one analysis. Progress is
+ * checkpointed per page up to the first user that failed, so that user is retried (up to {@code max-attempts}
+ * times per run) rather than skipped, and a run cut short by a crash or by {@code max-duration} resumes at the
+ * next trigger of the night.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "ai.precompute.enabled", havingValue = "true")
+public class AiPrecomputeJob {
+
+    static final String JOB = "ai-precompute";
+    private static final int ANALYSIS_WINDOW_DAYS = 30;
+
+    private final AiAdviceService aiAdviceService;
+    private final AiAnalysisRepository aiAnalysisRepository;
+    private final ScheduledJobRepository jobRepository;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    private final int concurrency;
+    private final int analysesPerMinute;
+    private final int pageSize;
+    private final Duration maxDuration;
+    private final Duration lease;
+    private final Duration minInterval;
+    private final int maxAttempts;
+    private final Counter analyzed;
+    private final Counter failed;
+
+    public AiPrecomputeJob(AiAdviceService aiAdviceService,
+                           AiAnalysisRepository aiAnalysisRepository,
+                           ScheduledJobRepository jobRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${ai.precompute.concurrency:2}") int concurrency,
+                           @Value("${ai.precompute.analyses-per-minute:20}") int analysesPerMinute,
+                           @Value("${ai.precompute.page-size:50}") int pageSize,
+                           @Value("${ai.precompute.max-duration:55m}") Duration maxDuration,
+                           @Value("${ai.precompute.lease:10m}") Duration lease,
+                           @Value("${ai.precompute.min-interval:12h}") Duration minInterval,
+                           @Value("${ai.precompute.max-attempts:3}") int maxAttempts) {
+        this.aiAdviceService = aiAdviceService;
+        this.aiAnalysisRepository = aiAnalysisRepository;
+        this.jobRepository = jobRepository;
+        this.concurrency = concurrency;
+        this.analysesPerMinute = analysesPerMinute;
+        this.pageSize = pageSize;
+        this.maxDuration = maxDuration;
+        this.lease = lease;
+        this.minInterval = minInterval;
+        this.maxAttempts = maxAttempts;
+        this.analyzed = Counter.builder("ai.precompute.users").tag("outcome", "analyzed").register(meterRegistry);
+        this.failed = Counter.builder("ai.precompute.users").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${ai.precompute.cron:0 0 1-5 * * *}")
+    public void run() {
+        Instant start = Instant.now();
+        if (completedRecently(jobRepository.state(JOB), start)) return;
+        if (!jobRepository.tryLock(JOB, owner, start, start.plus(lease))) {
+            log.debug("AI precompute is running on another instance");
+            return;
+        }
+
+        // another instance may have finished between the check above and taking the lock
+        JobState state = jobRepository.state(JOB);
+        if (completedRecently(state, start)) {
+            jobRepository.release(JOB, owner);
+            return;
+        }
+
+        long checkpoint = state.checkpoint();
+        if (checkpoint > 0) log.info("Resuming AI precompute after user {}", checkpoint);
+        Instant deadline = start.plus(maxDuration);
+        var pacer = new Pacer(analysesPerMinute);
+        var permits = new Semaphore(concurrency);
+        Map<Long, Integer> attempts = new HashMap<>();
+        Set<Long> failedIds = ConcurrentHashMap.newKeySet();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (Instant.now().isBefore(deadline)) {
+                List<StaleAnalysis> page = aiAnalysisRepository.findStale(checkpoint,
+                        LocalDate.now().minusDays(ANALYSIS_WINDOW_DAYS), pageSize);
+                if (page.isEmpty()) {
+                    jobRepository.complete(JOB, owner, Instant.now());
+                    log.info("AI precompute finished: {} analyzed, {} failed so far",
+                            (long) analyzed.count(), (long) failed.count());
+                    return;
+                }
+
+                failedIds.clear();
+                List<Future<?>> tasks = new ArrayList<>(page.size());
+                boolean leaseHeld = true;
+                for (StaleAnalysis user : page) {
+                    pacer.await();
+                    permits.acquire();
+                    if (!jobRepository.renew(JOB, owner, Instant.now().plus(lease), checkpoint)) {
+                        permits.release();
+                        leaseHeld = false;
+                        break;
+                    }
+                    tasks.add(workers.submit(() -> {
+                        try {
+                            if (!analyze(user)) failedIds.add(user.getId());
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                }
+                for (Future<?> task : tasks) task.get();
+
+                if (leaseHeld) checkpoint = advance(checkpoint, page, failedIds, attempts);
+                if (!leaseHeld || !jobRepository.renew(JOB, owner, Instant.now().plus(lease), checkpoint)) {
+                    log.warn("AI precompute lost its lease after user {}, stopping", checkpoint);
+                    return;
+                }
+            }
+            log.info("AI precompute reached its {} limit at user {}, resuming on the next trigger", maxDuration, checkpoint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("AI precompute stopped at user {}", checkpoint, e.getCause());
+        }
+        jobRepository.release(JOB, owner);
+    }
+
+    /** @return false when the user's analysis could not be computed */
+    private boolean analyze(StaleAnalysis user) {
+        try {
+            MoodEntryAiResponse response = aiAdviceService.analyze(user.getId());
+            // analyze answers with an empty summary when every model attempt failed
+            if (response.summary() == null || response.summary().isBlank()) {
+                failed.increment();
+                return false;
+            }
+            analyzed.increment();
+            return true;
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("AI precompute failed for user {}: {}", user.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The checkpoint after a page: its last user, or the user before the first one that failed and still has
+     * attempts left, so the next page starts with that user again. Users that did succeed are no longer stale
+     * and drop out of that page by themselves.
+     */
+    private long advance(long checkpoint, List<StaleAnalysis> page, Set<Long> failedIds, Map<Long, Integer> attempts) {
+        for (StaleAnalysis user : page) {
+            if (failedIds.contains(user.getId())) {
+                int tries = attempts.merge(user.getId(), 1, Integer::sum);
+                if (tries < maxAttempts) return checkpoint;
+                log.warn("AI precompute gave up on user {} after {} attempts", user.getId(), tries);
+            }
+            checkpoint = user.getId();
+        }
+        return checkpoint;
+    }
+
+    private boolean completedRecently(JobState state, Instant now) {
+        return state.checkpoint() == 0 && state.lastCompletedAt() != null
+                && state.lastCompletedAt().isAfter(now.minus(minInterval));
+    }
+
+    /** Spaces starts evenly so at most {@code perMinute} begin in any minute. Used from the job thread only. */
+    private static final class Pacer {
+        private final long intervalNanos;
+        private long next = System.nanoTime();
+
+        Pacer(int perMinute) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+        }
+
+        void await() throws InterruptedException {
+            long now = System.nanoTime();
+            long wait = next - now;
+            next = Math.max(now, next) + intervalNanos;
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodTracker.dto.MoodEntryDto;
+import com.moodTracker.entity.AiAnalysis;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Prompt text sent to OpenRouter and parsing of what comes back. Kept free of Spring state
+ * so the benchmarks can drive it directly.
+ */
+final class AiPrompts {
+
+    private AiPrompts() {}
+
+    static String analyzePrompt(List<MoodEntryDto> entries) {
+        // JSON payload for AI model
+        String payload = entries.stream()
+                .map(e -> String.format(Locale.ROOT,
+                        "{\"date\":\"%s\",\"rating\":%d,\"note\":%s}",
+                        e.getEntryDate(), e.getMoodScore(),
+                        e.getNote() == null ? "null" : "\"" + e.getNote().replace("\"", "\\\"") + "\""))
+                .reduce((a, b) -> a + ",\n" + b)
+                .orElse("");
+
+        // prompt + mini example (few-shot) + demand the STRICT JSON
+        return """
+                You are an assistant that outputs STRICT JSON only.
+                Analyze the mood logs (array of {"date","rating","note"}). Output Serbian.
+                Return ONLY a valid JSON object:
+                {
+                  "summary": "<summary in english language, max 120 words, without generic phrases>",
+                  "suggestions": ["three concrete seps, 6–14 words each, without empty strings"]
+                }
+                
+                Example input:
+                [{"date":"2025-08-01","rating":2,"note":"Stress at work, not enough sleep"},
+                 {"date":"2025-08-02","rating":4,"note":"Walk and hanging out with friends"}]
+                Example output:
+                        {
+                          "summary": "Mood fluctuates; sleep and physical activity improve overall tone.",
+                          "suggestions": [
+                            "Set a fixed bedtime for 7–8 hours of sleep",
+                            "Take a 10–15 minute walk after work",
+                            "Record daily stress triggers and responses",
+                            "Schedule a brief social activity twice a week",
+                            "Practice a 5-minute breathing exercise each morning"
+                          ]
+                        }
+                Now analyze these logs and produce JSON only:
+                [%s]
+                """.formatted(payload);
+    }
+
+    static String planPrompt(AiAnalysis a) {
+        String language = "en";
+        int days = 7;
+
+        String target = a.getAverage().doubleValue() >= 4.0 ? "maintain" : "improve";
+
+        String bullets = a.getSuggestions().stream()
+                .map(s -> "• " + s)
+                .collect(Collectors.joining("\n"));
+
+        String dayLabel = "en".equalsIgnoreCase(language) ? "Day" : "Dan";
+
+        return """
+                Language: %s
+                Horizon days: %d
+                Target: %s  // maintain | improve
+                
+                Analysis:
+                average = %.1f
+                summary = %s
+                suggestions:
+                %s
+                
+                Task:
+                Create a %d-day plan as PLAIN TEXT in %s, labeled "%s 1" to "%s %d".
+                Each day must have 3–5 actionable bullet points (<= 15 words each) and ONE short reflection question.
+                Constraints:
+                - Use the suggestions above as backbone.
+                - Practical, supportive tone. No medical diagnoses or alarms.
+                - If target=maintain: focus on sustaining good habits. If improve: gentle recovery steps.
+                - Output PLAIN TEXT only (no JSON, no code fences, no extra meta text).
+                """.formatted(
+                language, days, target,
+                a.getAverage().doubleValue(), a.getSummary(), bullets,
+                days, language, dayLabel, dayLabel, days
+        );
+    }
+
+    record Usage(int promptTokens, int completionTokens) {}
+
+    record Completion(String content, Usage usage) {}
+
+    /**
+     * Retrieve assistant message content from OpenRouter/OpenAI response.
+     */
+    static String extractAssistantContent(ObjectMapper om, String body) {
+        return parseCompletion(om, body).content();
+    }
+
+    /**
+     * Assistant message content plus the {@code usage} block (null when the provider left it out).
+     */
+    @SuppressWarnings("unchecked")
+    static Completion parseCompletion(ObjectMapper om, String body) {
+        if (body == null || body.isBlank()) return new Completion("", null);
+        try {
+            Map<String, Object> root = om.readValue(body, new TypeReference<>() {
+            });
+            Usage usage = usageOf(root.get("usage"));
+            List<Map<String, Object>> choices = (List<Map<String, Object>>) root.get("choices");
+            if (choices == null || choices.isEmpty()) return new Completion("", usage);
+            Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
+            return new Completion(message == null ? "" : String.valueOf(message.getOrDefault("content", "")), usage);
+        } catch (Exception e) {
+            return new Completion("", null);
+        }
+    }
+
+    static Usage usageOf(Object usage) {
+        if (!(usage instanceof Map<?, ?> u)) return null;
+        return new Usage(intOf(u.get("prompt_tokens")), intOf(u.get("completion_tokens")));
+    }
+
+    private static int intOf(Object v) {
+        return v instanceof Number n ? n.intValue() : 0;
+    }
+
+    /**
+     * Remove ```json fence-ove and return contend of JSON object if exist.
+     */
+    static String extractJson(String content) {
+        if (content == null) return "{}";
+        String c = content.trim();
+        if (c.startsWith("```")) {
+            int first = c.indexOf('{');
+            int last = c.lastIndexOf('}');
+            if (first >= 0 && last > first) return c.substring(first, last + 1);
+        }
+        int first = c.indexOf('{');
+        int last = c.lastIndexOf('}');
+        return (first >= 0 && last > first) ? c.substring(first, last + 1) : "{}";
+    }
+}
@@ -0,0 +1,79 @@
+package com.moodTracker.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moodTracker.dto.AiPlan;
+import com.moodTracker.dto.MoodEntryAiResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Last AI analysis and plan per user, addressed by a hash of everything that went into the prompt
+ * (models, prompt template version, the entries or saved analysis). An identical request is answered
+ * from memory; any change to the inputs produces a different key and misses.
+ */
+@Component
+public class AiResponseCache {
+
+    private final Cache<Long, Cached<MoodEntryAiResponse>> analyses;
+    private final Cache<Long, Cached<AiPlan>> plans;
+
+    private record Cached<T>(String key, T value) {}
+
+    public AiResponseCache(@Value("${ai.response-cache.max-users:10000}") int maxUsers,
+                           @Value("${ai.response-cache.ttl:24h}") Duration ttl) {
+        this.analyses = Caffeine.newBuilder().maximumSize(maxUsers).expireAfterWrite(ttl).build();
+        this.plans = Caffeine.newBuilder().maximumSize(maxUsers).expireAfterWrite(ttl).build();
+    }
+
+    public Optional<MoodEntryAiResponse> getAnalysis(Long userId, String key) {
+        return get(analyses, userId, key);
+    }
+
+    public void putAnalysis(Long userId, String key, MoodEntryAiResponse response) {
+        put(analyses, userId, key, response);
+    }
+
+    public Optional<AiPlan> getPlan(Long userId, String key) {
+        return get(plans, userId, key);
+    }
+
+    public void putPlan(Long userId, String key, AiPlan plan) {
+        put(plans, userId, key, plan);
+    }
+
+    /** Called whenever the user's entries change. */
+    public void evict(Long userId) {
+        if (userId == null) return;
+        analyses.invalidate(userId);
+        plans.invalidate(userId);
+    }
+
+    public static String key(String... parts) {
+        try {
+            var md = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                md.update((part == null ? "" : part).getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) { throw new IllegalStateException(e); }
+    }
+
+    private static <T> Optional<T> get(Cache<Long, Cached<T>> cache, Long userId, String key) {
+        Cached<T> cached = cache.getIfPresent(userId);
+        if (cached == null || !cached.key().equals(key)) return Optional.empty();
+        return Optional.of(cached.value());
+    }
+
+    private static <T> void put(Cache<Long, Cached<T>> cache, Long userId, String key, T value) {
+        cache.put(userId, new Cached<>(key, value));
+    }
+}
@@ -2,14 +2,14 @@ package com.moodTracker.service.impl;
 
 import com.moodTracker.entity.User;
 import com.moodTracker.repository.UserRepository;
+import com.moodTracker.security.AuthenticatedUser;
+import com.moodTracker.security.LoginUser;
 import com.moodTracker.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsServiceImpl implements CustomUserDetailsService {
@@ -21,11 +21,10 @@ public class CustomUserDetailsServiceImpl implements CustomUserDetailsService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
+        return new LoginUser(
+                new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), user.isEnabled()),
                 user.getPassword(),
-                Collections.emptyList()
+                user.getTokenVersion()
         );
     }
 }
-
@@ -0,0 +1,35 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.repository.UserRepository;
+import com.moodTracker.service.DataVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Service
+@RequiredArgsConstructor
+public class DataVersionServiceImpl implements DataVersionService {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public long current(Long userId) {
+        return userRepository.findDataVersion(userId).orElse(0L);
+    }
+
+    @Override
+    @Transactional
+    public void bump(Long userId) {
+        // joins the caller's transaction, so the version moves together with the write
+        userRepository.bumpDataVersion(userId);
+    }
+
+    @Override
+    @Transactional
+    public void bumpAll(Collection<Long> userIds) {
+        if (userIds.isEmpty()) return;
+        userRepository.bumpDataVersions(userIds);
+    }
+}
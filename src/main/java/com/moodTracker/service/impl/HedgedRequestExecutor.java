@@ -0,0 +1,217 @@
+package com.moodTracker.service.impl;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Runs an ordered list of model calls as hedged requests: the first candidate starts right away, the next one
+ * starts when the hedge delay passes or the running ones fail, and the first valid answer wins while the rest
+ * are cancelled. Each model has its own concurrency limit, so hedging never floods one model into 429s.
+ */
+@Component
+@Slf4j
+public class HedgedRequestExecutor {
+
+    private final ExecutorService attempts;
+    private final ConcurrentHashMap<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final int maxConcurrencyPerModel;
+    private final OpenRouterMetrics metrics;
+    private final ObservationRegistry observationRegistry;
+
+    @Autowired
+    public HedgedRequestExecutor(@Value("${openrouter.max-concurrency-per-model:4}") int maxConcurrencyPerModel,
+                                 OpenRouterMetrics metrics,
+                                 ObservationRegistry observationRegistry) {
+        this(maxConcurrencyPerModel, metrics, observationRegistry, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    HedgedRequestExecutor(int maxConcurrencyPerModel, OpenRouterMetrics metrics,
+                          ObservationRegistry observationRegistry, ExecutorService attempts) {
+        this.attempts = attempts;
+        this.maxConcurrencyPerModel = maxConcurrencyPerModel;
+        this.metrics = metrics;
+        this.observationRegistry = observationRegistry;
+    }
+
+    public record Attempt<T>(String model, Callable<T> call) {}
+
+    /**
+     * @param operation metrics tag for the chain, e.g. "analyze"
+     */
+    public <T> Optional<T> firstValid(String operation, List<Attempt<T>> candidates, Predicate<T> valid,
+                                      Duration hedgeDelay, Duration deadline) {
+        BlockingQueue<Future<T>> completion = new LinkedBlockingQueue<>();
+        List<Future<T>> inFlight = new ArrayList<>();
+        long deadlineNs = System.nanoTime() + deadline.toNanos();
+        int[] next = {0};
+        int running = 0;
+        boolean answered = false;
+        // attempts run on other threads, so their spans are parented explicitly
+        var chain = new Chain<>(operation, candidates, completion, inFlight, observationRegistry.getCurrentObservation());
+
+        try {
+            if (launch(chain, next)) running++;
+            long nextHedgeNs = System.nanoTime() + hedgeDelay.toNanos();
+
+            while (running > 0) {
+                long now = System.nanoTime();
+                if (now >= deadlineNs) {
+                    log.warn("AI deadline of {} exceeded after {} attempt(s)", deadline, next[0]);
+                    return Optional.empty();
+                }
+                boolean moreLeft = next[0] < candidates.size();
+                long waitUntil = moreLeft ? Math.min(nextHedgeNs, deadlineNs) : deadlineNs;
+
+                Future<T> done = completion.poll(waitUntil - now, TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    // hedge delay passed with nothing back yet: start the next candidate alongside
+                    if (moreLeft && System.nanoTime() >= nextHedgeNs) {
+                        if (launch(chain, next)) running++;
+                        nextHedgeNs = System.nanoTime() + hedgeDelay.toNanos();
+                    }
+                    continue;
+                }
+
+                running--;
+                T result = resultOf(done);
+                if (result != null && valid.test(result)) {
+                    answered = true;
+                    return Optional.of(result);
+                }
+
+                // a failed attempt should not wait out the hedge delay
+                if (launch(chain, next)) running++;
+                nextHedgeNs = System.nanoTime() + hedgeDelay.toNanos();
+            }
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+            metrics.attempts(operation, inFlight.size(), answered);
+        }
+    }
+
+    /**
+     * Take a slot of the model's concurrency limit for a call made outside {@link #firstValid}, such as a
+     * streamed one; false when the model is at its limit. Every successful call must be paired with {@link #release}.
+     */
+    public boolean tryAcquire(String model) {
+        return permitsFor(model).tryAcquire();
+    }
+
+    public void release(String model) {
+        permitsFor(model).release();
+    }
+
+    int availablePermits(String model) {
+        return permitsFor(model).availablePermits();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        attempts.shutdownNow();
+    }
+
+    private record Chain<T>(String operation, List<Attempt<T>> candidates, BlockingQueue<Future<T>> completion,
+                            List<Future<T>> inFlight, Observation parent) {}
+
+    private <T> boolean launch(Chain<T> chain, int[] next) {
+        while (next[0] < chain.candidates().size()) {
+            int index = next[0]++;
+            Attempt<T> attempt = chain.candidates().get(index);
+            Semaphore semaphore = permitsFor(attempt.model());
+            if (!semaphore.tryAcquire()) {
+                log.warn("Model {} is at its concurrency limit, skipping to the next candidate", attempt.model());
+                continue;
+            }
+            Observation observation = Observation.createNotStarted("openrouter.attempt", observationRegistry)
+                    .parentObservation(chain.parent())
+                    .contextualName(chain.operation() + " " + attempt.model())
+                    .lowCardinalityKeyValue("operation", chain.operation())
+                    .lowCardinalityKeyValue("model", attempt.model())
+                    .highCardinalityKeyValue("attempt", Integer.toString(index));
+            var task = new PermitTask<>(() -> observation.observeChecked(() -> attempt.call().call()),
+                    semaphore, chain.completion());
+            chain.inFlight().add(task);
+            attempts.execute(task);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * An attempt holding one model permit, released exactly once: by the call when it ends, or on completion
+     * when the task was cancelled before it started. Finished tasks queue themselves for {@link #firstValid}.
+     */
+    private static final class PermitTask<T> extends FutureTask<T> {
+        private final AtomicBoolean claimed;
+        private final Semaphore semaphore;
+        private final BlockingQueue<Future<T>> completion;
+
+        PermitTask(Callable<T> call, Semaphore semaphore, BlockingQueue<Future<T>> completion) {
+            this(new AtomicBoolean(), call, semaphore, completion);
+        }
+
+        private PermitTask(AtomicBoolean claimed, Callable<T> call, Semaphore semaphore,
+                           BlockingQueue<Future<T>> completion) {
+            super(() -> {
+                if (!claimed.compareAndSet(false, true)) throw new CancellationException();
+                try {
+                    return call.call();
+                } finally {
+                    semaphore.release();
+                }
+            });
+            this.claimed = claimed;
+            this.semaphore = semaphore;
+            this.completion = completion;
+        }
+
+        @Override
+        protected void done() {
+            if (claimed.compareAndSet(false, true)) semaphore.release();
+            completion.add(this);
+        }
+    }
+
+    private Semaphore permitsFor(String model) {
+        return permits.computeIfAbsent(model, m -> new Semaphore(maxConcurrencyPerModel));
+    }
+
+    private static <T> T resultOf(Future<T> done) throws InterruptedException {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            log.warn("AI attempt failed: {}", e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+            return null;
+        } catch (CancellationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.repository.MoodEntryOutboxRepository;
+import com.moodTracker.repository.MoodEntryOutboxRepository.OutboxRow;
+import com.moodTracker.repository.ScheduledJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes outbox rows to Kafka in id order, keyed by user id so one user's events stay on one partition.
+ * A batch is sent without waiting per record (the producer batches them), then the acknowledgements are
+ * awaited in id order and only the prefix before the first failure is deleted, so a failed event is retried
+ * before anything after it. One instance relays at a time under the {@code scheduled_jobs} lease; no rows are
+ * locked and no transaction is open while waiting for the broker. Delivery is at least once: consumers can
+ * drop repeats by the {@code outbox-id} header.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class MoodEntryOutboxRelay {
+
+    static final String OUTBOX_ID_HEADER = "outbox-id";
+    static final String JOB = "outbox-relay";
+
+    private final MoodEntryOutboxRepository outboxRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ScheduledJobRepository jobRepository;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    private final String topic;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration lease;
+    private final Counter published;
+    private final Counter failed;
+
+    public MoodEntryOutboxRelay(MoodEntryOutboxRepository outboxRepository,
+                                KafkaTemplate<String, String> kafkaTemplate,
+                                ScheduledJobRepository jobRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${outbox.topic:mood-entry-events}") String topic,
+                                @Value("${outbox.relay.batch-size:500}") int batchSize,
+                                @Value("${outbox.relay.send-timeout:10s}") Duration sendTimeout,
+                                @Value("${outbox.relay.lease:1m}") Duration lease) {
+        if (lease.compareTo(sendTimeout) <= 0) {
+            throw new IllegalArgumentException("outbox.relay.lease must be longer than outbox.relay.send-timeout");
+        }
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.jobRepository = jobRepository;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.lease = lease;
+        this.published = Counter.builder("outbox.events").tag("outcome", "published").register(meterRegistry);
+        this.failed = Counter.builder("outbox.events").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        drain();
+    }
+
+    /**
+     * Publish batches until the outbox is empty or a send fails. Does nothing while another instance holds
+     * the lease.
+     *
+     * @return number of events published
+     */
+    public long drain() {
+        Instant now = Instant.now();
+        if (!jobRepository.tryLock(JOB, owner, now, now.plus(lease))) return 0;
+        long total = 0;
+        try {
+            while (true) {
+                int n = publishBatch();
+                if (n < 0) return total;
+                total += n;
+                if (n < batchSize || !jobRepository.renew(JOB, owner, Instant.now().plus(lease), 0)) return total;
+            }
+        } finally {
+            jobRepository.release(JOB, owner);
+        }
+    }
+
+    /**
+     * @return events published, or -1 when a send failed; then only the rows acknowledged before the failed
+     * one are removed
+     */
+    private int publishBatch() {
+        List<OutboxRow> rows = outboxRepository.findOldest(batchSize);
+        if (rows.isEmpty()) return 0;
+
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            var record = new ProducerRecord<>(topic, Long.toString(row.userId()), row.payload());
+            record.headers().add(OUTBOX_ID_HEADER, Long.toString(row.id()).getBytes(StandardCharsets.UTF_8));
+            sends.add(kafkaTemplate.send(record));
+        }
+        kafkaTemplate.flush();
+
+        List<Long> acked = new ArrayList<>(rows.size());
+        boolean allSent = true;
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acked.add(rows.get(i).id());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                allSent = false;
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                allSent = false;
+                log.warn("Publishing outbox event {} failed, retrying from it next run: {}", rows.get(i).id(),
+                        e.getCause() == null ? e.toString() : e.getCause().getMessage());
+                break;
+            }
+        }
+
+        if (!acked.isEmpty()) outboxRepository.delete(acked);
+        published.increment(acked.size());
+        failed.increment(rows.size() - acked.size());
+        return allSent ? acked.size() : -1;
+    }
+}
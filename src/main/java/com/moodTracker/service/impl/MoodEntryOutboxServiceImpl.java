@@ -0,0 +1,62 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodTracker.dto.MoodEntryEvent;
+import com.moodTracker.repository.MoodEntryOutboxRepository;
+import com.moodTracker.repository.MoodEntryOutboxRepository.NewEvent;
+import com.moodTracker.service.MoodEntryOutboxService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class MoodEntryOutboxServiceImpl implements MoodEntryOutboxService {
+
+    private final MoodEntryOutboxRepository outboxRepository;
+    private final ObjectMapper om;
+    private final boolean enabled;
+
+    public MoodEntryOutboxServiceImpl(MoodEntryOutboxRepository outboxRepository,
+                                      ObjectMapper om,
+                                      @Value("${outbox.enabled:false}") boolean enabled) {
+        this.outboxRepository = outboxRepository;
+        this.om = om;
+        this.enabled = enabled;
+    }
+
+    @Override
+    @Transactional
+    public void append(MoodEntryEvent event) {
+        // without a relay nothing would ever drain the table
+        if (!enabled) return;
+        outboxRepository.append(event.userId(), event.type().name(), serialize(event));
+    }
+
+    @Override
+    @Transactional
+    public void appendAll(List<MoodEntryEvent> events) {
+        if (!enabled || events.isEmpty()) return;
+        List<NewEvent> rows = new ArrayList<>(events.size());
+        for (MoodEntryEvent event : events) {
+            rows.add(new NewEvent(event.userId(), event.type().name(), serialize(event)));
+        }
+        outboxRepository.appendAll(rows);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private String serialize(MoodEntryEvent event) {
+        try {
+            return om.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event, e);
+        }
+    }
+}
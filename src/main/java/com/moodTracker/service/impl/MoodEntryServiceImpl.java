@@ -1,78 +1,94 @@
 package com.moodTracker.service.impl;
 
 import com.moodTracker.dto.MoodEntryDto;
+import com.moodTracker.dto.MoodEntryEvent;
 import com.moodTracker.dto.MoodEntryRequest;
 import com.moodTracker.dto.MoodEntryResponse;
+import com.moodTracker.dto.MoodEntrySlice;
 import com.moodTracker.entity.MoodEntry;
-import com.moodTracker.entity.User;
 import com.moodTracker.exception.BadRequestException;
 import com.moodTracker.exception.MoodEntryAlreadyExistsException;
-import com.moodTracker.mapper.MoodEntryMapper;
 import com.moodTracker.repository.MoodEntryRepository;
 import com.moodTracker.repository.UserRepository;
+import com.moodTracker.service.MoodEntryOutboxService;
 import com.moodTracker.service.MoodEntryService;
+import com.moodTracker.service.DataVersionService;
+import com.moodTracker.service.MoodStatsService;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.errors.ResourceNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Observed
 public class MoodEntryServiceImpl implements MoodEntryService {
 
     private final UserRepository userRepository;
     private final MoodEntryRepository moodRepo;
-    private final MoodEntryMapper moodEntryMapper;
+    private final AiResponseCache aiResponseCache;
+    private final MoodStatsService moodStatsService;
+    private final DataVersionService dataVersionService;
+    private final MoodEntryOutboxService outboxService;
 
     @Override
-    public MoodEntryResponse create(String userEmail, MoodEntryRequest req) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-
+    @Transactional
+    public MoodEntryResponse create(Long userId, MoodEntryRequest req) {
         LocalDate targetDate = req.date() != null
                 ? req.date()
                 : LocalDate.now();
 
-        if (moodRepo.existsByUserIdAndEntryDate(user.getId(), targetDate)) {
+        if (moodRepo.existsByUserIdAndEntryDate(userId, targetDate)) {
             throw new MoodEntryAlreadyExistsException(
-                    "Mood entry for " + targetDate + " already exists for user " + user.getEmail()
+                    "Mood entry for " + targetDate + " already exists for user " + userId
                     + ". Please edit the last entry!");
         }
 
-        log.info("Creating new entry for {} {}", user.getFirstName(), user.getLastName());
+        log.info("Creating new entry for user {}", userId);
 
         MoodEntry me = MoodEntry.builder()
-                .user(user)
+                .user(userRepository.getReferenceById(userId))
                 .entryDate(targetDate)
                 .moodScore(req.moodScore())
                 .note(req.note())
                 .build();
 
         me = moodRepo.save(me);
+        moodStatsService.onEntryCreated(userId, me.getEntryDate(), me.getMoodScore());
+        dataVersionService.bump(userId);
+        aiResponseCache.evict(userId);
+        outboxService.append(event(MoodEntryEvent.Type.CREATED, me.getId(), userId, me.getEntryDate(), me.getMoodScore()));
         return new MoodEntryResponse(me.getId(), me.getEntryDate().toString(), me.getMoodScore(), me.getNote());
     }
 
     @Override
-    public MoodEntryResponse update(String userEmail, MoodEntryRequest req) {
-
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalStateException("User not found"));
+    @Transactional
+    public MoodEntryResponse update(Long userId, MoodEntryRequest req) {
 
-        Optional<MoodEntry> existingEntry = moodRepo.findByUserIdAndEntryDate(user.getId(), req.date());
+        Optional<MoodEntry> existingEntry = moodRepo.findByUserIdAndEntryDate(userId, req.date());
 
         if (existingEntry.isPresent()) {
-            log.info("Updating entry for {} {} for date {}", user.getFirstName(), user.getLastName(), existingEntry.get().getEntryDate());
+            log.info("Updating entry for user {} for date {}", userId, existingEntry.get().getEntryDate());
+            int oldScore = existingEntry.get().getMoodScore();
             existingEntry.get().setMoodScore(req.moodScore());
             existingEntry.get().setNote(req.note());
             moodRepo.save(existingEntry.get());
+            moodStatsService.onEntryUpdated(userId, existingEntry.get().getEntryDate(), oldScore, req.moodScore());
+            dataVersionService.bump(userId);
+            aiResponseCache.evict(userId);
+            outboxService.append(event(MoodEntryEvent.Type.UPDATED, existingEntry.get().getId(), userId,
+                    existingEntry.get().getEntryDate(), req.moodScore()));
         } else {
             log.error("There is no entry for this date.");
             throw new BadRequestException("Entry for date " + req.date() + " is not found");
@@ -87,41 +103,31 @@ public class MoodEntryServiceImpl implements MoodEntryService {
     }
 
     @Override
-    public MoodEntryResponse getEntryForDate(String email, LocalDate date) {
-        var user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + email));
-
-        var entry = moodRepo.findByUserIdAndEntryDate(user.getId(), date)
+    @Transactional(readOnly = true)
+    public MoodEntryResponse getEntryForDate(Long userId, LocalDate date) {
+        var entry = moodRepo.findResponseByUserIdAndEntryDate(userId, date)
                 .orElseThrow(() -> new ResourceNotFoundException("No mood entry found for date: " + date));
 
-        log.info("Entry for {} is found", entry.getEntryDate());
+        log.info("Entry for {} is found", entry.date());
 
-        return new MoodEntryResponse(entry.getId(), date.toString(), entry.getMoodScore(), entry.getNote());
+        return entry;
     }
 
     @Override
-    public List<MoodEntryDto> getEntriesForDate(String email) {
-        var user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + email));
-
-        List<MoodEntry> entries = moodRepo.findAllByUserIdAndEntryDateBetweenOrderByEntryDateDesc(user.getId(), LocalDate.now().minusDays(30), LocalDate.now());
-
-        List<MoodEntryDto> result = new ArrayList<>();
+    @Transactional(readOnly = true)
+    public List<MoodEntryDto> getEntriesForDate(Long userId) {
+        List<MoodEntryDto> entries = moodRepo.findDtosDesc(userId, LocalDate.now().minusDays(30), LocalDate.now());
 
         if (entries.isEmpty()) {
-            throw new ResourceNotFoundException("No mood entries found for user: " + email);
-        } else {
-            result = moodEntryMapper.toDto(entries);
+            throw new ResourceNotFoundException("No mood entries found for user: " + userId);
         }
 
-        return result;
+        return entries;
     }
 
     @Override
-    public Page<MoodEntryResponse> getEntryForDateRange(String email, LocalDate start, LocalDate end, Pageable pageable) {
-
-        var user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + email));
+    @Transactional(readOnly = true)
+    public Page<MoodEntryResponse> getEntryForDateRange(Long userId, LocalDate start, LocalDate end, Pageable pageable) {
 
         if (end.isBefore(start)) {
             throw new BadRequestException("Parameter 'end' should be before 'start'.");
@@ -129,27 +135,53 @@ public class MoodEntryServiceImpl implements MoodEntryService {
 
         log.info("Retrieving records from {} to {}", start, end);
 
-        return moodRepo
-                .findByUserIdAndEntryDateBetween(user.getId(), start, end, pageable)
-                .map(e -> new MoodEntryResponse(
-                        e.getId(),
-                        e.getEntryDate().toString(),
-                        e.getMoodScore(),
-                        e.getNote()
-                ));
+        return moodRepo.findResponsePage(userId, start, end, pageable);
     }
 
     @Override
-    public String deleteById(String email, Long id) {
+    @Transactional(readOnly = true)
+    public MoodEntrySlice getEntrySliceForDateRange(Long userId, LocalDate start, LocalDate end, String cursor, int size) {
+
+        if (end.isBefore(start)) {
+            throw new BadRequestException("Parameter 'end' should be before 'start'.");
+        }
 
-        var user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + email));
+        // one extra row tells us whether another slice follows, without a count query
+        Limit limit = Limit.of(size + 1);
+        List<MoodEntryResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = moodRepo.findFirstSlice(userId, start, end, limit);
+        } else {
+            SeekCursor after = SeekCursor.decode(cursor);
+            rows = moodRepo.findSliceAfter(userId, start, end, after.entryDate(), after.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<MoodEntryResponse> content = hasNext ? rows.subList(0, size) : rows;
 
-        Optional<MoodEntry> mood = moodRepo.findById(id);
+        String nextCursor = null;
+        if (hasNext) {
+            MoodEntryResponse last = content.get(content.size() - 1);
+            nextCursor = new SeekCursor(LocalDate.parse(last.date()), last.id()).encode();
+        }
+        return new MoodEntrySlice(content, size, hasNext, nextCursor);
+    }
+
+    @Override
+    @Transactional
+    public String deleteById(Long userId, Long id) {
+
+        // someone else's entry looks exactly like a missing one
+        Optional<MoodEntry> mood = moodRepo.findByIdAndUserId(id, userId);
 
         if (mood.isPresent()) {
             log.info("Deleting the entry with id {}", id);
-            moodRepo.deleteById(id);
+            moodRepo.delete(mood.get());
+            moodStatsService.onEntryDeleted(userId, mood.get().getEntryDate(), mood.get().getMoodScore());
+            dataVersionService.bump(userId);
+            aiResponseCache.evict(userId);
+            outboxService.append(event(MoodEntryEvent.Type.DELETED, id, userId,
+                    mood.get().getEntryDate(), mood.get().getMoodScore()));
         } else {
             log.error("Record with provided ID doesn't exist.");
             throw new BadRequestException("Record with provided ID doesn't exist.");
@@ -161,16 +193,19 @@ public class MoodEntryServiceImpl implements MoodEntryService {
 
 
     @Override
-    public MoodEntryResponse getToday(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalStateException("User not found"));
+    @Transactional(readOnly = true)
+    public MoodEntryResponse getToday(Long userId) {
         var today = LocalDate.now();
 
-        MoodEntry me = moodRepo.findByUserIdAndEntryDate(user.getId(), today)
+        MoodEntryResponse me = moodRepo.findResponseByUserIdAndEntryDate(userId, today)
                 .orElseThrow(() -> new IllegalStateException("No entry for today"));
 
         log.info("Getting today's entry...");
 
-        return new MoodEntryResponse(me.getId(), me.getEntryDate().toString(), me.getMoodScore(), me.getNote());
+        return me;
+    }
+
+    private static MoodEntryEvent event(MoodEntryEvent.Type type, Long entryId, Long userId, LocalDate date, int score) {
+        return new MoodEntryEvent(type, entryId, userId, date, score, Instant.now());
     }
 }
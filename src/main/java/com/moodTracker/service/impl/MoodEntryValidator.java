@@ -0,0 +1,34 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.dto.MoodEntryRequest;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Optional;
+
+/**
+ * Rules for entries that arrive outside the regular create endpoint: the {@link MoodEntryRequest}
+ * constraints plus the ones {@code MoodEntry} enforces (score 1–5, date not in the future).
+ */
+@Component
+@RequiredArgsConstructor
+public class MoodEntryValidator {
+
+    private final Validator validator;
+
+    /** Empty when valid, otherwise a message for the first broken rule. */
+    public Optional<String> validate(MoodEntryRequest req) {
+        if (req == null) return Optional.of("Empty record");
+        if (req.date() == null) return Optional.of("'date' is required");
+        if (req.date().isAfter(LocalDate.now())) return Optional.of("Entry date cannot be in the future.");
+        if (req.moodScore() < 1 || req.moodScore() > 5) return Optional.of("'moodScore' must be between 1 and 5");
+
+        return validator.validate(req).stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(v -> "'" + v.getPropertyPath() + "' " + v.getMessage())
+                .findFirst();
+    }
+}
@@ -0,0 +1,116 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.moodTracker.dto.MoodEntryResponse;
+import com.moodTracker.repository.MoodEntryJdbcRepository;
+import com.moodTracker.service.MoodExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams an export in keyset pages: each page is a short query that returns its connection before the rows
+ * are written, so a slow client never holds a database connection or cursor open.
+ */
+@Service
+@Slf4j
+public class MoodExportServiceImpl implements MoodExportService {
+
+    private final MoodEntryJdbcRepository jdbcRepository;
+    private final ObjectMapper om;
+    private final int pageSize;
+
+    public MoodExportServiceImpl(MoodEntryJdbcRepository jdbcRepository,
+                                 ObjectMapper om,
+                                 @Value("${moods.export.page-size:500}") int pageSize) {
+        this.jdbcRepository = jdbcRepository;
+        this.om = om;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void export(Long userId, Format format, OutputStream out) {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            int rows = 0;
+            switch (format) {
+                case NDJSON -> {
+                    JsonGenerator gen = om.getFactory().createGenerator(writer)
+                            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    // flushing per row would push every line through to the socket on its own
+                    ObjectWriter rowWriter = om.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                    rows = forEachPage(userId, e -> writeJson(rowWriter, gen, e));
+                    gen.flush();
+                }
+                case CSV -> {
+                    writer.write("date,moodScore,note\n");
+                    rows = forEachPage(userId, e -> writeCsv(writer, e));
+                }
+            }
+            log.info("Exported {} entries for user {} as {}", rows, userId, format);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int forEachPage(Long userId, Consumer<MoodEntryResponse> sink) {
+        int rows = 0;
+        SeekCursor after = null;
+        List<MoodEntryResponse> page;
+        do {
+            page = after == null
+                    ? jdbcRepository.findExportPage(userId, null, 0, pageSize)
+                    : jdbcRepository.findExportPage(userId, after.entryDate(), after.id(), pageSize);
+            page.forEach(sink);
+            rows += page.size();
+            if (!page.isEmpty()) {
+                MoodEntryResponse last = page.getLast();
+                after = new SeekCursor(LocalDate.parse(last.date()), last.id());
+            }
+        } while (page.size() == pageSize);
+        return rows;
+    }
+
+    private static void writeJson(ObjectWriter rowWriter, JsonGenerator gen, MoodEntryResponse e) {
+        try {
+            rowWriter.writeValue(gen, e);
+            gen.writeRaw('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeCsv(Writer w, MoodEntryResponse e) {
+        try {
+            w.write(e.date());
+            w.write(',');
+            w.write(Integer.toString(e.moodScore()));
+            w.write(',');
+            w.write(csvField(e.note()));
+            w.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,285 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodTracker.dto.MoodEntryRequest;
+import com.moodTracker.dto.MoodImportResponse;
+import com.moodTracker.dto.MoodImportRowResult;
+import com.moodTracker.exception.BadRequestException;
+import com.moodTracker.repository.MoodEntryJdbcRepository;
+import com.moodTracker.repository.MoodEntryJdbcRepository.UpsertRow;
+import com.moodTracker.service.MoodImportService;
+import com.moodTracker.service.DataVersionService;
+import com.moodTracker.service.MoodStatsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bulk import of mood entries. The whole body is read and validated first, and nothing is written if it is
+ * unreadable or over the row cap; the rows are then upserted in JDBC batches in one transaction together with
+ * the statistics rebuild and the data version bump. Each row's outcome comes from comparing it with the stored
+ * entry, since the driver's per-row counts depend on useAffectedRows and on batch rewriting.
+ */
+@Service
+@Slf4j
+public class MoodImportServiceImpl implements MoodImportService {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final MoodEntryJdbcRepository jdbcRepository;
+    private final MoodEntryValidator validator;
+    private final MoodStatsService moodStatsService;
+    private final AiResponseCache aiResponseCache;
+    private final DataVersionService dataVersionService;
+    private final ObjectMapper om;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxRows;
+
+    public MoodImportServiceImpl(MoodEntryJdbcRepository jdbcRepository,
+                                 MoodEntryValidator validator,
+                                 MoodStatsService moodStatsService,
+                                 AiResponseCache aiResponseCache,
+                                 DataVersionService dataVersionService,
+                                 ObjectMapper om,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${moods.import.batch-size:500}") int batchSize,
+                                 @Value("${moods.import.max-rows:5000}") int maxRows) {
+        this.jdbcRepository = jdbcRepository;
+        this.validator = validator;
+        this.moodStatsService = moodStatsService;
+        this.aiResponseCache = aiResponseCache;
+        this.dataVersionService = dataVersionService;
+        this.om = om;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public MoodImportResponse importEntries(Long userId, InputStream body, String contentType) {
+        var run = new ImportRun(userId);
+        try {
+            MediaType type = contentType == null ? MediaType.APPLICATION_JSON : MediaType.parseMediaType(contentType);
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                readJsonArray(body, run);
+            } else if (type.isCompatibleWith(MediaType.parseMediaType(NDJSON))) {
+                readNdjson(body, run);
+            } else if (type.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+                readCsv(body, run);
+            } else {
+                throw new BadRequestException("Unsupported content type: " + contentType);
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Could not read import body: " + e.getMessage());
+        }
+        transactionTemplate.executeWithoutResult(status -> run.write());
+        if (run.inserted + run.updated > 0) aiResponseCache.evict(userId);
+        log.info("Imported {} rows for user {} ({} inserted, {} updated, {} failed)",
+                run.results.size(), userId, run.inserted, run.updated, run.failed);
+        return new MoodImportResponse(run.results.size(), run.inserted, run.updated, run.unchanged, run.failed, run.results);
+    }
+
+    /* ===================== Readers ===================== */
+
+    private void readJsonArray(InputStream body, ImportRun run) throws IOException {
+        try (JsonParser p = om.createParser(body)) {
+            if (p.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Expected a JSON array of mood entries.");
+            }
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                run.add(p.readValueAs(MoodEntryRequest.class), null);
+            }
+        }
+    }
+
+    private void readNdjson(InputStream body, ImportRun run) throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    run.add(om.readValue(line, MoodEntryRequest.class), null);
+                } catch (IOException e) {
+                    run.add(null, "Malformed JSON line");
+                }
+            }
+        }
+    }
+
+    private void readCsv(InputStream body, ImportRun run) throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            var csv = new CsvRecords(reader);
+            List<String> cols;
+            boolean first = true;
+            while ((cols = csv.next()) != null) {
+                if (cols.size() == 1 && cols.get(0).isBlank()) continue;
+                if (first && cols.get(0).trim().toLowerCase().startsWith("date")) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                try {
+                    var req = new MoodEntryRequest(
+                            Integer.parseInt(cols.get(1).trim()),
+                            LocalDate.parse(cols.get(0).trim()),
+                            cols.size() > 2 ? cols.get(2) : null);
+                    run.add(req, null);
+                } catch (IndexOutOfBoundsException | NumberFormatException | DateTimeParseException e) {
+                    run.add(null, "Expected date,moodScore,note");
+                }
+            }
+        }
+    }
+
+    /* ===================== Helpers ===================== */
+
+    private class ImportRun {
+        final Long userId;
+        final List<MoodImportRowResult> results = new ArrayList<>();
+        final List<UpsertRow> pending = new ArrayList<>();
+        final List<Integer> pendingRows = new ArrayList<>();
+        int inserted;
+        int updated;
+        int unchanged;
+        int failed;
+
+        ImportRun(Long userId) {
+            this.userId = userId;
+        }
+
+        void add(MoodEntryRequest req, String parseError) {
+            int row = results.size() + 1;
+            if (row > maxRows) {
+                throw new BadRequestException("Import is limited to " + maxRows + " rows per request.");
+            }
+            String error = parseError != null ? parseError : validator.validate(req).orElse(null);
+            String date = req == null || req.date() == null ? null : req.date().toString();
+            if (error != null) {
+                results.add(new MoodImportRowResult(row, date, "INVALID", error));
+                failed++;
+                return;
+            }
+            // placeholder, replaced with the outcome once the row is written
+            results.add(null);
+            pending.add(new UpsertRow(userId, req.date(), req.moodScore(), req.note()));
+            pendingRows.add(row);
+        }
+
+        /** Runs in the import's transaction; a failure rolls back every batch before it. */
+        void write() {
+            // later rows for a date already seen in this import compare against the earlier row, not the table
+            Map<LocalDate, UpsertRow> current = new HashMap<>();
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                List<UpsertRow> rows = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                List<LocalDate> dates = new ArrayList<>(rows.size());
+                for (UpsertRow r : rows) {
+                    if (!current.containsKey(r.entryDate())) dates.add(r.entryDate());
+                }
+                current.putAll(jdbcRepository.findByDates(userId, dates));
+
+                List<UpsertRow> changed = new ArrayList<>(rows.size());
+                for (int i = 0; i < rows.size(); i++) {
+                    UpsertRow r = rows.get(i);
+                    String status = statusOf(current.put(r.entryDate(), r), r);
+                    if (!status.equals("UNCHANGED")) changed.add(r);
+                    record(pendingRows.get(from + i), r, status);
+                }
+                if (!changed.isEmpty()) jdbcRepository.upsertBatch(changed);
+            }
+
+            // aggregates are rebuilt once rather than adjusted row by row
+            if (inserted + updated > 0) {
+                moodStatsService.recompute(userId);
+                dataVersionService.bump(userId);
+            }
+        }
+
+        private void record(int row, UpsertRow r, String status) {
+            switch (status) {
+                case "INSERTED" -> inserted++;
+                case "UPDATED" -> updated++;
+                default -> unchanged++;
+            }
+            results.set(row - 1, new MoodImportRowResult(row, r.entryDate().toString(), status, null));
+        }
+
+        private static String statusOf(UpsertRow stored, UpsertRow r) {
+            if (stored == null) return "INSERTED";
+            boolean same = stored.moodScore() == r.moodScore() && Objects.equals(stored.note(), r.note());
+            return same ? "UNCHANGED" : "UPDATED";
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 record reader: quoted fields may contain commas, doubled quotes and line breaks, so one
+     * record can span several lines.
+     */
+    static final class CsvRecords {
+        private final BufferedReader in;
+
+        CsvRecords(BufferedReader in) {
+            this.in = in;
+        }
+
+        /** The fields of the next record, or null at the end of the input. */
+        List<String> next() throws IOException {
+            int c = in.read();
+            if (c < 0) return null;
+            List<String> out = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (; c >= 0; c = in.read()) {
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                    } else if (peek() == '"') {
+                        field.append('"');
+                        in.read();
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    out.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c == '\r') {
+                    if (peek() == '\n') in.read();
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+            }
+            out.add(field.toString());
+            return out;
+        }
+
+        private int peek() throws IOException {
+            in.mark(1);
+            int c = in.read();
+            in.reset();
+            return c;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodTracker.dto.MoodEntryEvent;
+import com.moodTracker.dto.MoodEntryRequest;
+import com.moodTracker.repository.MoodEntryJdbcRepository;
+import com.moodTracker.repository.MoodEntryJdbcRepository.EntryKey;
+import com.moodTracker.repository.MoodEntryJdbcRepository.UpsertRow;
+import com.moodTracker.repository.UserRepository;
+import com.moodTracker.service.DataVersionService;
+import com.moodTracker.service.MoodEntryOutboxService;
+import com.moodTracker.service.MoodStatsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ingests mood readings from partner integrations. Records are keyed by user id and carry a
+ * {@link MoodEntryRequest} as JSON. Each poll batch is validated with the same rules as the import endpoint,
+ * rejected records go to the dead-letter topic with the reason, and the rest is written with one multi-row upsert.
+ * The upsert, its outbox events, the statistics and the data version bump commit together, each as one statement
+ * (or JDBC batch) for the whole poll batch. Locks are taken in the order the REST write path takes them:
+ * mood_entries, then mood_stats, then users.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "ingest.enabled", havingValue = "true")
+public class MoodIngestListener {
+
+    private final MoodEntryJdbcRepository jdbcRepository;
+    private final UserRepository userRepository;
+    private final MoodEntryValidator validator;
+    private final MoodStatsService moodStatsService;
+    private final DataVersionService dataVersionService;
+    private final MoodEntryOutboxService outboxService;
+    private final AiResponseCache aiResponseCache;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper om;
+    private final TransactionTemplate transactionTemplate;
+    private final String deadLetterTopic;
+    private final Counter upserted;
+    private final Counter deadLettered;
+
+    public MoodIngestListener(MoodEntryJdbcRepository jdbcRepository,
+                              UserRepository userRepository,
+                              MoodEntryValidator validator,
+                              MoodStatsService moodStatsService,
+                              DataVersionService dataVersionService,
+                              MoodEntryOutboxService outboxService,
+                              AiResponseCache aiResponseCache,
+                              KafkaTemplate<String, String> kafkaTemplate,
+                              ObjectMapper om,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${ingest.dlt-topic:mood-readings.DLT}") String deadLetterTopic) {
+        this.jdbcRepository = jdbcRepository;
+        this.userRepository = userRepository;
+        this.validator = validator;
+        this.moodStatsService = moodStatsService;
+        this.dataVersionService = dataVersionService;
+        this.outboxService = outboxService;
+        this.aiResponseCache = aiResponseCache;
+        this.kafkaTemplate = kafkaTemplate;
+        this.om = om;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deadLetterTopic = deadLetterTopic;
+        this.upserted = Counter.builder("ingest.records").tag("outcome", "upserted").register(meterRegistry);
+        this.deadLettered = Counter.builder("ingest.records").tag("outcome", "dead_lettered").register(meterRegistry);
+    }
+
+    private record Accepted(ConsumerRecord<String, String> record, UpsertRow row) {}
+
+    private record Rejected(ConsumerRecord<String, String> record, String reason) {}
+
+    @KafkaListener(id = "mood-ingest",
+            topics = "${ingest.topic:mood-readings}",
+            containerFactory = "moodIngestContainerFactory",
+            concurrency = "${ingest.concurrency:3}",
+            autoStartup = "${ingest.auto-startup:true}")
+    public void onBatch(List<ConsumerRecord<String, String>> records) {
+        List<Rejected> rejected = new ArrayList<>();
+        List<Accepted> accepted = new ArrayList<>(records.size());
+
+        for (ConsumerRecord<String, String> record : records) {
+            Long userId = parseUserId(record.key());
+            if (userId == null) {
+                rejected.add(new Rejected(record, "Record key must be a user id"));
+                continue;
+            }
+            MoodEntryRequest req;
+            try {
+                req = record.value() == null ? null : om.readValue(record.value(), MoodEntryRequest.class);
+            } catch (JsonProcessingException e) {
+                rejected.add(new Rejected(record, "Malformed JSON value"));
+                continue;
+            }
+            String error = validator.validate(req).orElse(null);
+            if (error != null) {
+                rejected.add(new Rejected(record, error));
+                continue;
+            }
+            accepted.add(new Accepted(record, new UpsertRow(userId, req.date(), req.moodScore(), req.note())));
+        }
+
+        // one lookup per batch, so a reading for a deleted account cannot fail the whole statement on the FK
+        Set<Long> userIds = new LinkedHashSet<>();
+        accepted.forEach(a -> userIds.add(a.row().userId()));
+        Set<Long> known = userIds.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingIds(userIds));
+
+        List<UpsertRow> rows = new ArrayList<>(accepted.size());
+        for (Accepted a : accepted) {
+            if (known.contains(a.row().userId())) {
+                rows.add(a.row());
+            } else {
+                rejected.add(new Rejected(a.record(), "Unknown user " + a.row().userId()));
+            }
+        }
+
+        // a failure here propagates to the container's error handler, which retries the whole batch;
+        // dead letters are sent only afterwards so a retried batch does not publish them twice
+        Set<Long> written = new LinkedHashSet<>();
+        rows.forEach(r -> written.add(r.userId()));
+        transactionTemplate.executeWithoutResult(status -> write(rows, written));
+        upserted.increment(rows.size());
+        written.forEach(aiResponseCache::evict);
+
+        if (rejected.isEmpty()) return;
+        // offsets are committed after this returns, so wait until the dead letters are on the broker
+        CompletableFuture.allOf(rejected.stream().map(this::deadLetter).toArray(CompletableFuture[]::new)).join();
+        deadLettered.increment(rejected.size());
+        log.warn("Mood ingest batch of {}: {} upserted, {} dead-lettered", records.size(), rows.size(), rejected.size());
+    }
+
+    private void write(List<UpsertRow> rows, Set<Long> userIds) {
+        if (rows.isEmpty()) return;
+        if (!outboxService.isEnabled()) {
+            jdbcRepository.upsertMultiRow(rows);
+        } else {
+            // ids that existed before tell CREATED from UPDATED; the second lookup finds the ids just inserted
+            Map<EntryKey, Long> before = jdbcRepository.findIds(rows);
+            jdbcRepository.upsertMultiRow(rows);
+            Map<EntryKey, Long> after = jdbcRepository.findIds(rows);
+            outboxService.appendAll(events(rows, before.keySet(), after));
+        }
+        moodStatsService.onEntriesUpserted(rows);
+        dataVersionService.bumpAll(userIds);
+    }
+
+    private static List<MoodEntryEvent> events(List<UpsertRow> rows, Set<EntryKey> existing, Map<EntryKey, Long> ids) {
+        Set<EntryKey> seen = new HashSet<>(existing);
+        Instant now = Instant.now();
+        List<MoodEntryEvent> events = new ArrayList<>(rows.size());
+        for (UpsertRow r : rows) {
+            EntryKey key = new EntryKey(r.userId(), r.entryDate());
+            // a date repeated within the batch is an update of the first row for it
+            MoodEntryEvent.Type type = seen.add(key) ? MoodEntryEvent.Type.CREATED : MoodEntryEvent.Type.UPDATED;
+            events.add(new MoodEntryEvent(type, ids.get(key), r.userId(), r.entryDate(), r.moodScore(), now));
+        }
+        return events;
+    }
+
+    private CompletableFuture<SendResult<String, String>> deadLetter(Rejected rejected) {
+        ConsumerRecord<String, String> record = rejected.record();
+        var dead = new ProducerRecord<>(deadLetterTopic, record.key(), record.value());
+        // same headers DeadLetterPublishingRecoverer writes, so tooling reads both kinds of dead letters alike
+        dead.headers()
+                .add(KafkaHeaders.DLT_ORIGINAL_TOPIC, record.topic().getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(record.partition()).array())
+                .add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(record.offset()).array())
+                .add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, rejected.reason().getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(dead);
+    }
+
+    private static Long parseUserId(String key) {
+        if (key == null) return null;
+        try {
+            return Long.valueOf(key.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.dto.MoodBucketsResponse;
+import com.moodTracker.dto.MoodStatsResponse;
+import com.moodTracker.entity.MoodStats;
+import com.moodTracker.repository.MoodEntryJdbcRepository;
+import com.moodTracker.repository.MoodEntryJdbcRepository.BucketRow;
+import com.moodTracker.repository.MoodEntryJdbcRepository.Granularity;
+import com.moodTracker.repository.MoodEntryJdbcRepository.UpsertRow;
+import com.moodTracker.repository.MoodEntryRepository;
+import com.moodTracker.repository.MoodStatsRepository;
+import com.moodTracker.service.MoodStatsService;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Per-user rolling aggregates over 7/30/90/365 days, kept as one row of daily scores per user (see
+ * {@link RollingMoodStats}). Writes lock that row by primary key, change one day and store each window's totals
+ * with it; reads take no locks, answer from those totals when the row was written today and otherwise move
+ * the row forward in memory. mood_entries is only read back to fill a row that is missing or stale.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Observed
+public class MoodStatsServiceImpl implements MoodStatsService {
+
+    private final MoodStatsRepository statsRepo;
+    private final MoodEntryRepository moodRepo;
+    private final MoodEntryJdbcRepository jdbcRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MoodStatsResponse> getStats(Long userId) {
+        return read(userId, RollingMoodStats.WINDOWS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MoodStatsResponse getWindow(Long userId, int windowDays) {
+        return read(userId, windowDays).getFirst();
+    }
+
+    @Override
+    public MoodBucketsResponse getBuckets(Long userId, LocalDate start, LocalDate end, Granularity granularity) {
+        List<BucketRow> rows = jdbcRepository.aggregateBuckets(userId, start, end, granularity);
+        int n = rows.size();
+        String[] keys = new String[n];
+        int[] count = new int[n];
+        double[] avg = new double[n];
+        int[] min = new int[n];
+        int[] max = new int[n];
+        for (int i = 0; i < n; i++) {
+            BucketRow r = rows.get(i);
+            keys[i] = r.bucket().toString();
+            count[i] = r.count();
+            avg[i] = RollingMoodStats.round((double) r.sum() / r.count(), 1);
+            min[i] = r.min();
+            max[i] = r.max();
+        }
+        return new MoodBucketsResponse(granularity.name().toLowerCase(), start.toString(), end.toString(),
+                keys, count, avg, min, max);
+    }
+
+    @Override
+    @Transactional
+    public void onEntryCreated(Long userId, LocalDate date, int score) {
+        write(userId, stats -> stats.set(date, score));
+    }
+
+    @Override
+    @Transactional
+    public void onEntryUpdated(Long userId, LocalDate date, int oldScore, int newScore) {
+        if (oldScore == newScore) return;
+        write(userId, stats -> stats.set(date, newScore));
+    }
+
+    @Override
+    @Transactional
+    public void onEntryDeleted(Long userId, LocalDate date, int score) {
+        write(userId, stats -> stats.set(date, 0));
+    }
+
+    @Override
+    @Transactional
+    public void recompute(Long userId) {
+        MoodStats row = lockRow(userId);
+        save(row, fromEntries(userId, LocalDate.now()));
+    }
+
+    @Override
+    @Transactional
+    public void onEntriesUpserted(Collection<UpsertRow> rows) {
+        if (rows.isEmpty()) return;
+        LocalDate today = LocalDate.now();
+        Set<Long> userIds = new TreeSet<>();
+        rows.forEach(r -> userIds.add(r.userId()));
+
+        // create missing rows before taking any lock, then lock them all in one statement
+        Set<Long> missing = new TreeSet<>(userIds);
+        statsRepo.findExistingIds(userIds).forEach(missing::remove);
+        missing.forEach(id -> statsRepo.insertIfMissing(id, today));
+        List<MoodStats> locked = statsRepo.findAllForUpdate(userIds);
+
+        Map<Long, RollingMoodStats> stats = new HashMap<>();
+        List<Long> stale = new ArrayList<>();
+        for (MoodStats row : locked) {
+            if (row.getDayScores() == null) {
+                stale.add(row.getUserId());
+                stats.put(row.getUserId(), RollingMoodStats.empty(today));
+            } else {
+                stats.put(row.getUserId(), restore(row, today));
+            }
+        }
+        if (!stale.isEmpty()) {
+            moodRepo.findDayScoresForUsers(stale, today.minusDays(RollingMoodStats.DAYS - 1), today)
+                    .forEach(d -> stats.get(d.getUserId()).set(d.getEntryDate(), d.getMoodScore()));
+        }
+        // in batch order, so a date repeated in the batch ends with its last score, like the upsert
+        rows.forEach(r -> stats.get(r.userId()).set(r.entryDate(), r.moodScore()));
+        locked.forEach(row -> save(row, stats.get(row.getUserId())));
+    }
+
+    /* ===================== Helpers ===================== */
+
+    private List<MoodStatsResponse> read(Long userId, int... windows) {
+        LocalDate today = LocalDate.now();
+        MoodStats row = statsRepo.findById(userId).filter(r -> r.getDayScores() != null).orElse(null);
+        // written today: the stored totals are current, so nothing is rebuilt
+        if (row != null && row.getWindowTotals() != null && row.getAsOf().equals(today)) {
+            return Arrays.stream(windows)
+                    .mapToObj(w -> RollingMoodStats.window(today, row.getWindowTotals(), w))
+                    .toList();
+        }
+        RollingMoodStats stats = row == null ? fromEntries(userId, today) : restore(row, today);
+        return Arrays.stream(windows).mapToObj(stats::window).toList();
+    }
+
+    // a row from an earlier day slides forward by the days that passed; the stored totals spare the recount
+    private static RollingMoodStats restore(MoodStats row, LocalDate today) {
+        RollingMoodStats stats = new RollingMoodStats(row.getAsOf(), row.getDayScores(), row.getWindowTotals());
+        stats.advanceTo(today);
+        return stats;
+    }
+
+    /**
+     * Applies a change to the locked row. A stale row is refilled from mood_entries, which already holds the
+     * write in progress; {@link RollingMoodStats#set} is idempotent, so applying the change again is harmless.
+     */
+    private void write(Long userId, Consumer<RollingMoodStats> change) {
+        LocalDate today = LocalDate.now();
+        MoodStats row = lockRow(userId);
+        RollingMoodStats stats;
+        if (row.getDayScores() == null) {
+            stats = fromEntries(userId, today);
+        } else {
+            stats = restore(row, today);
+        }
+        change.accept(stats);
+        save(row, stats);
+    }
+
+    private MoodStats lockRow(Long userId) {
+        return statsRepo.findForUpdate(userId).orElseGet(() -> {
+            statsRepo.insertIfMissing(userId, LocalDate.now());
+            return statsRepo.findForUpdate(userId).orElseThrow();
+        });
+    }
+
+    private RollingMoodStats fromEntries(Long userId, LocalDate today) {
+        RollingMoodStats stats = RollingMoodStats.empty(today);
+        moodRepo.findDayScores(userId, today.minusDays(RollingMoodStats.DAYS - 1), today)
+                .forEach(d -> stats.set(d.getEntryDate(), d.getMoodScore()));
+        return stats;
+    }
+
+    private static void save(MoodStats row, RollingMoodStats stats) {
+        // managed entity: flushed with the surrounding transaction
+        row.setAsOf(stats.asOf());
+        row.setDayScores(stats.days());
+        row.setWindowTotals(stats.totals());
+    }
+}
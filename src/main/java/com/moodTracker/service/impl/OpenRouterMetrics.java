@@ -0,0 +1,72 @@
+package com.moodTracker.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Meters for OpenRouter traffic:
+ * {@code openrouter.requests} (timer per operation, model and outcome),
+ * {@code openrouter.tokens} (prompt/completion tokens per model, from the response usage block) and
+ * {@code openrouter.fallback.attempts} (attempts started per fallback chain).
+ */
+@Component
+@RequiredArgsConstructor
+public class OpenRouterMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String EMPTY = "empty";
+    public static final String CLIENT_CLOSED = "client_closed";
+
+    private final MeterRegistry registry;
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, String operation, String model, String outcome) {
+        sample.stop(Timer.builder("openrouter.requests")
+                .tag("operation", operation)
+                .tag("model", model)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+
+    public void tokens(String model, AiPrompts.Usage usage) {
+        if (usage == null) return;
+        registry.counter("openrouter.tokens", "model", model, "type", "prompt").increment(usage.promptTokens());
+        registry.counter("openrouter.tokens", "model", model, "type", "completion").increment(usage.completionTokens());
+    }
+
+    public void attempts(String operation, int attempts, boolean answered) {
+        DistributionSummary.builder("openrouter.fallback.attempts")
+                .tag("operation", operation)
+                .tag("result", answered ? "answered" : "exhausted")
+                .register(registry)
+                .record(attempts);
+    }
+
+    /**
+     * rate_limited, client_error, server_error, timeout, cancelled (lost a hedge) or error;
+     * callers record {@link #CLIENT_CLOSED} themselves when our own client went away mid-stream.
+     */
+    public static String outcomeOf(Throwable e) {
+        if (e instanceof HttpStatusCodeException h) {
+            if (h.getStatusCode().value() == 429) return "rate_limited";
+            return h.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+        }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SocketTimeoutException) return "timeout";
+            if (t instanceof InterruptedIOException || t instanceof CancellationException
+                    || t instanceof InterruptedException) return "cancelled";
+        }
+        return "error";
+    }
+}
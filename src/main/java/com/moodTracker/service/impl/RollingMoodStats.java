@@ -0,0 +1,196 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.dto.MoodStatsResponse;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * The last {@value #DAYS} days of one user's scores plus a score histogram per window. Setting a day or
+ * moving to a new day only touches the histogram buckets of the days that changed, and count, sum, sum of
+ * squares, min and max all follow from the histogram. Streaks are read off the day array, so nothing here
+ * goes back to mood_entries. {@link #totals()} packs the histograms and streaks so a row written today can be
+ * read with {@link #window(LocalDate, byte[], int)} without touching the day array.
+ */
+final class RollingMoodStats {
+
+    static final int[] WINDOWS = {7, 30, 90, 365};
+    static final int DAYS = 366;
+    private static final int MAX_SCORE = 5;
+    // per window: the count of each score 1..5, then the current and the longest streak, as shorts
+    private static final int TOTALS_PER_WINDOW = MAX_SCORE + 2;
+    static final int TOTALS_BYTES = WINDOWS.length * TOTALS_PER_WINDOW * Short.BYTES;
+
+    private LocalDate asOf;
+    private final byte[] days;
+    // histogram[w][score] = entries with that score in window w; a window of n days covers indexes 0..n
+    private final int[][] histogram = new int[WINDOWS.length][MAX_SCORE + 1];
+
+    RollingMoodStats(LocalDate asOf, byte[] days) {
+        this(asOf, days, null);
+    }
+
+    /** @param totals the {@link #totals()} stored with the days, or null to count the histograms from the days */
+    RollingMoodStats(LocalDate asOf, byte[] days, byte[] totals) {
+        if (days.length != DAYS) throw new IllegalArgumentException("Expected " + DAYS + " days, got " + days.length);
+        this.asOf = asOf;
+        this.days = days.clone();
+        if (totals != null) {
+            ByteBuffer buf = totalsBuffer(totals);
+            for (int w = 0; w < WINDOWS.length; w++) {
+                for (int score = 1; score <= MAX_SCORE; score++) histogram[w][score] = buf.getShort();
+                buf.position(buf.position() + 2 * Short.BYTES);
+            }
+            return;
+        }
+        for (int i = 0; i < DAYS; i++) {
+            if (this.days[i] != 0) count(i, this.days[i], 1);
+        }
+    }
+
+    static RollingMoodStats empty(LocalDate asOf) {
+        return new RollingMoodStats(asOf, new byte[DAYS]);
+    }
+
+    LocalDate asOf() {
+        return asOf;
+    }
+
+    byte[] days() {
+        return days.clone();
+    }
+
+    byte[] totals() {
+        ByteBuffer buf = ByteBuffer.allocate(TOTALS_BYTES);
+        for (int w = 0; w < WINDOWS.length; w++) {
+            for (int score = 1; score <= MAX_SCORE; score++) buf.putShort((short) histogram[w][score]);
+            buf.putShort((short) currentStreak(WINDOWS[w]));
+            buf.putShort((short) longestStreak(WINDOWS[w]));
+        }
+        return buf.array();
+    }
+
+    /** Sets the score of a day, 0 to clear it. Setting the same score twice is a no-op. */
+    void set(LocalDate date, int score) {
+        if (score < 0 || score > MAX_SCORE) throw new IllegalArgumentException("Score out of range: " + score);
+        long i = ChronoUnit.DAYS.between(date, asOf);
+        if (i < 0 || i >= DAYS) return;
+        int old = days[(int) i];
+        if (old == score) return;
+        if (old != 0) count((int) i, old, -1);
+        if (score != 0) count((int) i, score, 1);
+        days[(int) i] = (byte) score;
+    }
+
+    /** Moves the window end forward, dropping each day that leaves a window from that window's histogram. */
+    void advanceTo(LocalDate today) {
+        long shift = ChronoUnit.DAYS.between(asOf, today);
+        if (shift <= 0) return;
+        asOf = today;
+        if (shift >= DAYS) {
+            Arrays.fill(days, (byte) 0);
+            for (int[] h : histogram) Arrays.fill(h, 0);
+            return;
+        }
+        int s = (int) shift;
+        for (int w = 0; w < WINDOWS.length; w++) {
+            for (int i = Math.max(0, WINDOWS[w] - s + 1); i <= WINDOWS[w]; i++) {
+                if (days[i] != 0) histogram[w][days[i]]--;
+            }
+        }
+        System.arraycopy(days, 0, days, s, DAYS - s);
+        Arrays.fill(days, 0, s, (byte) 0);
+    }
+
+    MoodStatsResponse window(int windowDays) {
+        int w = windowIndex(windowDays);
+        return response(asOf, windowDays, histogram[w], currentStreak(windowDays), longestStreak(windowDays));
+    }
+
+    /** Reads one window from stored {@link #totals()}; only valid while {@code asOf} is still today. */
+    static MoodStatsResponse window(LocalDate asOf, byte[] totals, int windowDays) {
+        ByteBuffer buf = totalsBuffer(totals).position(windowIndex(windowDays) * TOTALS_PER_WINDOW * Short.BYTES);
+        int[] h = new int[MAX_SCORE + 1];
+        for (int score = 1; score <= MAX_SCORE; score++) h[score] = buf.getShort();
+        return response(asOf, windowDays, h, buf.getShort(), buf.getShort());
+    }
+
+    private static int windowIndex(int windowDays) {
+        int w = Arrays.binarySearch(WINDOWS, windowDays);
+        if (w < 0) throw new IllegalArgumentException("Unsupported window: " + windowDays);
+        return w;
+    }
+
+    private static ByteBuffer totalsBuffer(byte[] totals) {
+        if (totals.length != TOTALS_BYTES) {
+            throw new IllegalArgumentException("Expected " + TOTALS_BYTES + " bytes of totals, got " + totals.length);
+        }
+        return ByteBuffer.wrap(totals);
+    }
+
+    private static MoodStatsResponse response(LocalDate asOf, int windowDays, int[] h, int currentStreak,
+                                              int longestStreak) {
+        int n = 0;
+        long sum = 0;
+        long sumSq = 0;
+        Integer min = null;
+        Integer max = null;
+        for (int score = 1; score <= MAX_SCORE; score++) {
+            if (h[score] == 0) continue;
+            n += h[score];
+            sum += (long) h[score] * score;
+            sumSq += (long) h[score] * score * score;
+            if (min == null) min = score;
+            max = score;
+        }
+        double avg = n == 0 ? 0.0 : (double) sum / n;
+        double variance = n == 0 ? 0.0 : Math.max(0.0, (double) sumSq / n - avg * avg);
+
+        return new MoodStatsResponse(
+                windowDays,
+                asOf.minusDays(windowDays).toString(),
+                asOf.toString(),
+                n,
+                round(avg, 1),
+                round(Math.sqrt(variance), 2),
+                min,
+                max,
+                currentStreak,
+                longestStreak);
+    }
+
+    // the current streak may end yesterday: today simply has not been logged yet
+    private int currentStreak(int windowDays) {
+        int i = days[0] != 0 ? 0 : 1;
+        int streak = 0;
+        while (i <= windowDays && days[i] != 0) {
+            streak++;
+            i++;
+        }
+        return streak;
+    }
+
+    private int longestStreak(int windowDays) {
+        int longest = 0;
+        int run = 0;
+        for (int i = 0; i <= windowDays; i++) {
+            run = days[i] != 0 ? run + 1 : 0;
+            longest = Math.max(longest, run);
+        }
+        return longest;
+    }
+
+    private void count(int index, int score, int delta) {
+        for (int w = 0; w < WINDOWS.length; w++) {
+            if (index <= WINDOWS[w]) histogram[w][score] += delta;
+        }
+    }
+
+    static double round(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP).doubleValue();
+    }
+}
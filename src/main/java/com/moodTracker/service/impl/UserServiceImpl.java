@@ -8,11 +8,14 @@ import com.moodTracker.entity.User;
 import com.moodTracker.mapper.UserMapper;
 import com.moodTracker.repository.UserRepository;
 import com.moodTracker.security.JwtService;
+import com.moodTracker.security.UserInvalidationService;
 import com.moodTracker.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.errors.ResourceNotFoundException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -26,6 +29,7 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final UserInvalidationService userInvalidationService;
 
     @Override
     public void registerUser(RegisterRequest request) {
@@ -53,8 +57,7 @@ public class UserServiceImpl implements UserService {
                 )
         );
 
-        org.springframework.security.core.userdetails.User userDetails =
-                (org.springframework.security.core.userdetails.User) auth.getPrincipal();
+        UserDetails userDetails = (UserDetails) auth.getPrincipal();
 
         return jwtService.generateToken(userDetails);
     }
@@ -67,7 +70,9 @@ public class UserServiceImpl implements UserService {
 
         if (user != null) {
             user.setPassword(passwordEncoder.encode(request.newPassword()));
+            // saving bumps the user's token_version (User#invalidateTokensOnCredentialChange)
             userRepository.save(user);
+            userInvalidationService.refresh(user.getId());
         }
 
         StringBuilder sb = new StringBuilder();
@@ -79,5 +84,11 @@ public class UserServiceImpl implements UserService {
         return sb.toString();
     }
 
+    @Override
+    public Long getUserId(String email) {
+        return userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + email));
+    }
+
 
 }
@@ -0,0 +1,17 @@
+-- users.data_version the analysis was computed from; equal versions mean the entries have not changed since
+ALTER TABLE ai_analysis
+    ADD COLUMN data_version BIGINT NULL;
+
+-- Lease lock and resume checkpoint for scheduled jobs that must run on one instance at a time
+CREATE TABLE IF NOT EXISTS scheduled_jobs
+(
+    name              VARCHAR(64)  NOT NULL PRIMARY KEY,
+    locked_by         VARCHAR(255) NULL,
+    locked_until      TIMESTAMP(3) NULL,
+    checkpoint        BIGINT       NOT NULL DEFAULT 0,
+    last_completed_at TIMESTAMP(3) NULL
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci;
+
+INSERT INTO scheduled_jobs (name) VALUES ('ai-precompute');
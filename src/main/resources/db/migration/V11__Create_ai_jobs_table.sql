@@ -0,0 +1,17 @@
+-- Async AI jobs (?async=true on /ai/analyze and /ai/plan). State and result live here, so a poll can land
+-- on any instance and finished jobs survive a restart
+CREATE TABLE IF NOT EXISTS ai_jobs
+(
+    id           CHAR(36)      NOT NULL PRIMARY KEY,
+    user_id      BIGINT        NOT NULL,
+    job_type     VARCHAR(16)   NOT NULL,
+    status       VARCHAR(16)   NOT NULL,
+    result       JSON          NULL,
+    error        VARCHAR(1000) NULL,
+    submitted_at TIMESTAMP(3)  NOT NULL,
+    finished_at  TIMESTAMP(3)  NULL,
+    CONSTRAINT fk_ai_jobs_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    INDEX idx_ai_jobs_submitted (finished_at, submitted_at)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci;
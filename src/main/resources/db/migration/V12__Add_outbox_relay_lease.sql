@@ -0,0 +1,2 @@
+-- Lease for MoodEntryOutboxRelay, so one instance publishes at a time without holding row locks across sends
+INSERT INTO scheduled_jobs (name) VALUES ('outbox-relay');
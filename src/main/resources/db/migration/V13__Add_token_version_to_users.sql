@@ -0,0 +1,6 @@
+-- Bumped whenever password, role or enabled change; tokens carrying an older version are rejected on every node
+ALTER TABLE users
+    ADD COLUMN token_version         INT         NOT NULL DEFAULT 0,
+    ADD COLUMN tokens_invalid_before DATETIME(6) NULL;
+
+CREATE INDEX idx_users_tokens_invalid_before ON users (tokens_invalid_before);
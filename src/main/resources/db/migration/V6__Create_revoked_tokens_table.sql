@@ -0,0 +1,12 @@
+-- Revoked JWTs, shared by all instances when jwt.revocation.store=jdbc
+CREATE TABLE IF NOT EXISTS revoked_tokens
+(
+    token_key  VARCHAR(80) NOT NULL PRIMARY KEY,
+    expires_at TIMESTAMP   NOT NULL,
+    revoked_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_revoked_expires (expires_at),
+    INDEX idx_revoked_at (revoked_at)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci;
@@ -0,0 +1,26 @@
+-- Rolling mood aggregates (7/30/90/365 days) as one row of daily scores per user; byte i of day_scores is the
+-- score logged on as_of - i (0 = none). window_totals holds each window's score counts and streaks as of as_of,
+-- so a row written today is read without rebuilding them; the backfill leaves it for the first write to fill.
+-- Rows are filled here so that writes only ever lock an existing row.
+CREATE TABLE IF NOT EXISTS mood_stats
+(
+    user_id       BIGINT         NOT NULL PRIMARY KEY,
+    as_of         DATE           NOT NULL,
+    day_scores    VARBINARY(366) NULL,
+    window_totals VARBINARY(56)  NULL,
+
+    CONSTRAINT fk_mood_stats_user
+        FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci;
+
+INSERT INTO mood_stats (user_id, as_of, day_scores)
+WITH RECURSIVE days (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM days WHERE n < 365)
+SELECT u.id,
+       CURRENT_DATE,
+       CAST(GROUP_CONCAT(CHAR(COALESCE(e.mood_score, 0)) ORDER BY days.n SEPARATOR '') AS BINARY(366))
+FROM users u
+         CROSS JOIN days
+         LEFT JOIN mood_entries e ON e.user_id = u.id AND e.entry_date = CURRENT_DATE - INTERVAL days.n DAY
+GROUP BY u.id;
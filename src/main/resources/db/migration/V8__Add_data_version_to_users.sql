@@ -0,0 +1,3 @@
+-- Bumped on every mood write; read endpoints derive their ETags from it
+ALTER TABLE users
+    ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- Mood entry change events written in the same transaction as the change; MoodEntryOutboxRelay publishes
+-- them to Kafka in id order and deletes them once the broker has acknowledged
+CREATE TABLE IF NOT EXISTS mood_entry_outbox
+(
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id    BIGINT                                  NOT NULL,
+    event_type ENUM ('CREATED', 'UPDATED', 'DELETED') NOT NULL,
+    payload    JSON                                    NOT NULL,
+    created_at TIMESTAMP(3)                            NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci;
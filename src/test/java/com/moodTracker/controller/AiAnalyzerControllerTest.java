@@ -0,0 +1,135 @@
+package com.moodTracker.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodTracker.entity.Role;
+import com.moodTracker.exception.BadRequestException;
+import com.moodTracker.exception.GlobalExceptionHandler;
+import com.moodTracker.repository.AiJobRepository;
+import com.moodTracker.security.AuthenticatedUser;
+import com.moodTracker.service.AiAdviceService;
+import com.moodTracker.service.UserService;
+import com.moodTracker.service.impl.AiJobServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AiAnalyzerControllerTest {
+
+    private static final long USER_ID = 7L;
+
+    private final AiAdviceService aiAdviceService = mock(AiAdviceService.class);
+    private final AiJobRepository aiJobRepository = mock(AiJobRepository.class);
+    private final ExecutorService aiExecutor = mock(ExecutorService.class);
+    private final UserService userService = mock(UserService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        var jobs = new AiJobServiceImpl(aiAdviceService, aiJobRepository, new ObjectMapper(), aiExecutor,
+                Duration.ofMinutes(30), Duration.ofMinutes(10), Duration.ofMinutes(3));
+        mvc = MockMvcBuilders
+                .standaloneSetup(new AiAnalyzerController(aiAdviceService, jobs, userService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+
+        authenticate(Role.USER);
+    }
+
+    private static void authenticate(Role role) {
+        var user = new AuthenticatedUser(USER_ID, "user@example.com", role, true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void unknownJobAnswers404() throws Exception {
+        when(aiJobRepository.find("missing", USER_ID)).thenReturn(Optional.empty());
+
+        mvc.perform(get("/ai/jobs/missing"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.message").value("Job not found: missing"));
+    }
+
+    @Test
+    void fullQueueAnswers503() throws Exception {
+        doThrow(new RejectedExecutionException()).when(aiExecutor).execute(any());
+
+        mvc.perform(post("/ai/analyze").param("async", "true"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503));
+
+        // the rejected job must not be left behind for polls to find
+        verify(aiJobRepository).delete(anyString());
+    }
+
+    @Test
+    void badRequestExceptionAnswers400() throws Exception {
+        when(aiAdviceService.analyze(USER_ID)).thenThrow(new BadRequestException("bad input"));
+
+        mvc.perform(post("/ai/analyze"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("bad input"));
+    }
+
+    @Test
+    void anotherUsersEmailAnswers403() throws Exception {
+        mvc.perform(post("/ai/analyze").param("email", "other@example.com").param("async", "true"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.status").value(403));
+        mvc.perform(get("/ai/plan/stream").param("email", "other@example.com"))
+                .andExpect(status().isForbidden());
+
+        verify(userService, never()).getUserId(anyString());
+        verify(aiExecutor, never()).execute(any());
+        verify(aiAdviceService, never()).streamPlan(any());
+    }
+
+    @Test
+    void ownEmailIsAccepted() throws Exception {
+        mvc.perform(post("/ai/analyze").param("email", "user@example.com"))
+                .andExpect(status().isOk());
+
+        verify(aiAdviceService).analyze(USER_ID);
+        verify(userService, never()).getUserId(anyString());
+    }
+
+    @Test
+    void adminMayActForAnotherUser() throws Exception {
+        authenticate(Role.ADMIN);
+        when(userService.getUserId("other@example.com")).thenReturn(9L);
+
+        mvc.perform(post("/ai/analyze").param("email", "other@example.com"))
+                .andExpect(status().isOk());
+
+        verify(aiAdviceService).analyze(9L);
+    }
+}
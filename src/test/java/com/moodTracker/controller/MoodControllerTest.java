@@ -0,0 +1,103 @@
+package com.moodTracker.controller;
+
+import com.moodTracker.dto.MoodEntryResponse;
+import com.moodTracker.entity.Role;
+import com.moodTracker.exception.GlobalExceptionHandler;
+import com.moodTracker.security.AuthenticatedUser;
+import com.moodTracker.service.DataVersionService;
+import com.moodTracker.service.MoodEntryService;
+import com.moodTracker.service.MoodExportService;
+import com.moodTracker.service.MoodImportService;
+import com.moodTracker.service.MoodStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class MoodControllerTest {
+
+    private static final long USER_ID = 7L;
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 10);
+
+    private final MoodEntryService service = mock(MoodEntryService.class);
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        var controller = new MoodController(service, mock(MoodStatsService.class), mock(MoodImportService.class),
+                mock(MoodExportService.class), dataVersionService);
+        mvc = MockMvcBuilders
+                .standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+
+        var user = new AuthenticatedUser(USER_ID, "user@example.com", Role.USER, true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        when(service.getEntryForDate(USER_ID, DAY)).thenReturn(new MoodEntryResponse(1L, DAY, 4, "note"));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void responseCarriesTheDataVersionAsETag() throws Exception {
+        when(dataVersionService.current(USER_ID)).thenReturn(3L);
+
+        mvc.perform(get("/api/moods/date").param("date", DAY.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7-3\""))
+                .andExpect(jsonPath("$.moodScore").value(4));
+    }
+
+    @Test
+    void matchingIfNoneMatchAnswers304WithoutQueryingEntries() throws Exception {
+        when(dataVersionService.current(USER_ID)).thenReturn(3L);
+
+        mvc.perform(get("/api/moods/date").param("date", DAY.toString()).header(HttpHeaders.IF_NONE_MATCH, "\"7-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(service, never()).getEntryForDate(USER_ID, DAY);
+    }
+
+    @Test
+    void writeInvalidatesTheTag() throws Exception {
+        when(dataVersionService.current(USER_ID)).thenReturn(4L);
+
+        mvc.perform(get("/api/moods/date").param("date", DAY.toString()).header(HttpHeaders.IF_NONE_MATCH, "\"7-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7-4\""));
+    }
+
+    @Test
+    void todayTagChangesWithTheDate() throws Exception {
+        when(dataVersionService.current(USER_ID)).thenReturn(3L);
+
+        mvc.perform(get("/api/moods/today").header(HttpHeaders.IF_NONE_MATCH, "\"7-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7-3-" + LocalDate.now() + "\""));
+    }
+}
@@ -0,0 +1,43 @@
+package com.moodTracker.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UserTest {
+
+    @Test
+    void credentialChangesBumpTheTokenVersion() {
+        var user = loaded();
+
+        user.setRole(Role.ADMIN);
+        user.invalidateTokensOnCredentialChange();
+        assertEquals(1, user.getTokenVersion());
+        assertNotNull(user.getTokensInvalidBefore());
+
+        user.setEnabled(false);
+        user.invalidateTokensOnCredentialChange();
+        user.setPassword("new-hash");
+        user.invalidateTokensOnCredentialChange();
+        assertEquals(3, user.getTokenVersion());
+    }
+
+    @Test
+    void otherChangesKeepTheTokenVersion() {
+        var user = loaded();
+
+        user.setFirstName("Ana");
+        user.invalidateTokensOnCredentialChange();
+
+        assertEquals(0, user.getTokenVersion());
+        assertNull(user.getTokensInvalidBefore());
+    }
+
+    private static User loaded() {
+        var user = User.builder().id(1L).email("u@example.com").password("hash").enabled(true).role(Role.USER).build();
+        user.rememberCredentials();
+        return user;
+    }
+}
@@ -0,0 +1,136 @@
+package com.moodTracker.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CRUD latency with and without slow AI calls in flight. The pool is kept at four connections and four times as
+ * many clients keep {@code /ai/analyze} busy against a {@link FakeOpenRouter} answering after 2 s (under the 3 s
+ * read timeout); if an analyze request held its connection across the model calls, CRUD requests would queue
+ * behind them for seconds.
+ * Not part of the normal build:
+ * {@code mvn test -Dtest=AiConnectionHoldLoadTest -Dloadtests=true [-Dloadtest.seconds=20]}
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.hikari.maximum-pool-size=" + AiConnectionHoldLoadTest.POOL_SIZE)
+@ActiveProfiles("loadtest")
+@EnabledIfSystemProperty(named = "loadtests", matches = "true")
+class AiConnectionHoldLoadTest {
+
+    static final int POOL_SIZE = 4;
+    private static final int AI_CLIENTS = POOL_SIZE * 4;
+    private static final int CRUD_CLIENTS = 8;
+    private static final int SECONDS = Integer.getInteger("loadtest.seconds", 20);
+
+    private static FakeOpenRouter openRouter;
+
+    @DynamicPropertySource
+    static void openRouter(DynamicPropertyRegistry registry) throws IOException {
+        openRouter = new FakeOpenRouter(new FakeOpenRouter.Behaviour(Duration.ofSeconds(2), Duration.ZERO, 0, 0,
+                Duration.ZERO, 24, Duration.ofMillis(20)));
+        registry.add("openrouter.base-url", openRouter::baseUrl);
+    }
+
+    @AfterAll
+    static void stopOpenRouter() {
+        openRouter.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private LoadTestClient client;
+
+    @BeforeEach
+    void client() {
+        client = new LoadTestClient(port);
+    }
+
+    @Test
+    void crudLatencyStaysFlatWhileAiCallsAreInFlight() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < AI_CLIENTS + CRUD_CLIENTS; i++) {
+            tokens.add(client.register("hold-" + i + "@example.com"));
+            for (int d = 0; d < 14; d++) {
+                client.post("/api/moods/create", tokens.get(i), LoadTestClient.entry(LocalDate.now().minusDays(d)));
+            }
+        }
+        List<String> aiTokens = tokens.subList(0, AI_CLIENTS);
+        List<String> crudTokens = tokens.subList(AI_CLIENTS, tokens.size());
+
+        crud("crud-baseline", crudTokens);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (ExecutorService ai = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String token : aiTokens) {
+                ai.execute(() -> {
+                    while (running.get()) {
+                        // a changed entry changes the prompt, so every analyze goes to the model
+                        client.send("PUT", "/api/moods/update", token, LoadTestClient.entry(LocalDate.now()));
+                        long start = System.nanoTime();
+                        var resp = client.post("/ai/analyze", token, null);
+                        recorder.record("analyze", System.nanoTime() - start, resp.statusCode() == 200);
+                    }
+                });
+            }
+            // let every AI client get its request to the model before measuring
+            Thread.sleep(1000);
+            crud("crud-under-ai", crudTokens);
+            running.set(false);
+        }
+
+        double baseline = recorder.percentileMillis("crud-baseline", 0.95);
+        double underAi = recorder.percentileMillis("crud-under-ai", 0.95);
+        String report = "pool %d, %d AI clients, %d CRUD clients, %d s per phase%n%sOpenRouter stand-in: %s".formatted(
+                POOL_SIZE, AI_CLIENTS, CRUD_CLIENTS, SECONDS, recorder.report(SECONDS), openRouter.outcomes());
+
+        assertEquals(0, recorder.errors("crud-baseline"), report);
+        assertEquals(0, recorder.errors("crud-under-ai"), report);
+        assertTrue(recorder.count("analyze") >= AI_CLIENTS, "AI calls were not kept in flight\n" + report);
+        // a held connection would push p95 to the model latency (2 s); allow ordinary contention noise
+        assertTrue(underAi <= Math.max(baseline * 3, baseline + 250),
+                "CRUD p95 rose from %.1f ms to %.1f ms while AI calls were in flight%n%s"
+                        .formatted(baseline, underAi, report));
+    }
+
+    private void crud(String phase, List<String> tokens) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String token : tokens) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        var end = LocalDate.now();
+                        var resp = ThreadLocalRandom.current().nextBoolean()
+                                ? client.get("/api/moods/range?start=" + end.minusDays(30) + "&end=" + end, token)
+                                : client.send("PUT", "/api/moods/update", token,
+                                        LoadTestClient.entry(end.minusDays(ThreadLocalRandom.current().nextInt(14))));
+                        recorder.record(phase, System.nanoTime() - start, resp.statusCode() == 200);
+                    }
+                });
+            }
+        }
+    }
+}
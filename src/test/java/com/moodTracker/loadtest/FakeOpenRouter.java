@@ -0,0 +1,169 @@
+package com.moodTracker.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the OpenRouter chat-completions endpoint. Answers JSON-mode requests with an analysis,
+ * plain requests with a plan, and {@code stream: true} requests as SSE deltas. Latency, error statuses and
+ * hangs (to trip client read timeouts) are drawn per request from the {@link Behaviour}.
+ */
+class FakeOpenRouter implements AutoCloseable {
+
+    /**
+     * @param errorRate   share of requests answered with 400, 404 or 429
+     * @param timeoutRate share of requests that hang for {@code hang} before answering
+     */
+    record Behaviour(Duration latency, Duration jitter, double errorRate, double timeoutRate, Duration hang,
+                     int streamChunks, Duration chunkDelay) {
+
+        static Behaviour realistic() {
+            return new Behaviour(Duration.ofMillis(400), Duration.ofMillis(400), 0.05, 0.02, Duration.ofSeconds(10),
+                    24, Duration.ofMillis(20));
+        }
+    }
+
+    private static final int[] ERROR_STATUSES = {400, 404, 429};
+    private static final String ANALYSIS = """
+            {"summary":"Mood dips after short nights and lifts after walks or time with friends.",\
+            "suggestions":["Keep a fixed bedtime for seven to eight hours of sleep",\
+            "Take a fifteen minute walk right after work",\
+            "Write down one stress trigger and your response each evening"]}""";
+    private static final String PLAN = """
+            Day 1
+            • Go to bed at the same time tonight
+            • Take a 15-minute walk after work
+            Reflection: what drained you most today?
+            """;
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private volatile Behaviour behaviour;
+
+    FakeOpenRouter(Behaviour behaviour) throws IOException {
+        this.behaviour = behaviour;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.setExecutor(executor);
+        server.createContext("/chat/completions", this::handle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void behaviour(Behaviour behaviour) {
+        this.behaviour = behaviour;
+    }
+
+    /** Requests seen, keyed by {@code model outcome}, e.g. {@code mistralai/mistral-7b-instruct:free 429}. */
+    Map<String, Long> outcomes() {
+        Map<String, Long> copy = new TreeMap<>();
+        outcomes.forEach((k, v) -> copy.put(k, v.sum()));
+        return copy;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode req = om.readTree(exchange.getRequestBody());
+            String model = req.path("model").asText("?");
+            Behaviour b = behaviour;
+            var random = ThreadLocalRandom.current();
+
+            double roll = random.nextDouble();
+            if (roll < b.timeoutRate()) {
+                record(model, "hang");
+                sleep(b.hang());
+            } else {
+                sleep(b.latency().plusMillis(b.jitter().isZero() ? 0 : random.nextLong(b.jitter().toMillis() + 1)));
+            }
+            if (roll >= b.timeoutRate() && roll < b.timeoutRate() + b.errorRate()) {
+                int status = ERROR_STATUSES[random.nextInt(ERROR_STATUSES.length)];
+                record(model, Integer.toString(status));
+                send(exchange, status, "application/json", "{\"error\":{\"code\":" + status + "}}");
+                return;
+            }
+
+            boolean jsonMode = req.has("response_format");
+            String content = jsonMode ? ANALYSIS : PLAN;
+            if (req.path("stream").asBoolean(false)) {
+                record(model, "stream");
+                stream(exchange, content, b);
+            } else {
+                record(model, "200");
+                send(exchange, 200, "application/json", completion(content));
+            }
+        }
+    }
+
+    private void stream(HttpExchange exchange, String content, Behaviour b) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        out.write(": OPENROUTER PROCESSING\n\n".getBytes(StandardCharsets.UTF_8));
+        int chunk = Math.max(1, content.length() / Math.max(1, b.streamChunks()));
+        for (int i = 0; i < content.length(); i += chunk) {
+            String delta = content.substring(i, Math.min(content.length(), i + chunk));
+            String event = om.writeValueAsString(Map.of("choices", List.of(Map.of("delta", Map.of("content", delta)))));
+            out.write(("data: " + event + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleep(b.chunkDelay());
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String completion(String content) throws IOException {
+        return om.writeValueAsString(Map.of(
+                "id", "gen-loadtest",
+                "object", "chat.completion",
+                "choices", List.of(Map.of(
+                        "index", 0,
+                        "finish_reason", "stop",
+                        "message", Map.of("role", "assistant", "content", content))),
+                "usage", Map.of("prompt_tokens", 800, "completion_tokens", 160, "total_tokens", 960)));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private void record(String model, String outcome) {
+        outcomes.computeIfAbsent(model + " " + outcome, k -> new LongAdder()).increment();
+    }
+
+    private static void sleep(Duration d) {
+        if (d.isZero() || d.isNegative()) return;
+        try {
+            Thread.sleep(d);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.moodTracker.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-endpoint latency samples and outcome counts, reported as throughput and p50/p95/p99.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> byEndpoint = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean ok) {
+        byEndpoint.computeIfAbsent(endpoint, k -> new Samples()).add(nanos, ok);
+    }
+
+    String report(double seconds) {
+        var sb = new StringBuilder(String.format("%-18s %8s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms"));
+        new TreeMap<>(byEndpoint).forEach((endpoint, s) -> {
+            long[] sorted = s.sorted();
+            sb.append(String.format("%-18s %8d %8d %9.1f %9.1f %9.1f %9.1f%n",
+                    endpoint, sorted.length, s.errors.sum(), sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99)));
+        });
+        return sb.toString();
+    }
+
+    long errors(String endpoint) {
+        Samples s = byEndpoint.get(endpoint);
+        return s == null ? 0 : s.errors.sum();
+    }
+
+    long count(String endpoint) {
+        Samples s = byEndpoint.get(endpoint);
+        return s == null ? 0 : s.sorted().length;
+    }
+
+    double percentileMillis(String endpoint, double p) {
+        Samples s = byEndpoint.get(endpoint);
+        return s == null ? 0 : percentile(s.sorted(), p);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(sorted.length * p) - 1;
+        return sorted[Math.max(0, idx)] / 1_000_000.0;
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private final LongAdder errors = new LongAdder();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        void add(long value, boolean ok) {
+            if (!ok) errors.increment();
+            lock.lock();
+            try {
+                if (size == nanos.length) nanos = Arrays.copyOf(nanos, size * 2);
+                nanos[size++] = value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long[] sorted() {
+            lock.lock();
+            try {
+                long[] copy = Arrays.copyOf(nanos, size);
+                Arrays.sort(copy);
+                return copy;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
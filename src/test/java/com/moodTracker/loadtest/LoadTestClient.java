@@ -0,0 +1,83 @@
+package com.moodTracker.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JSON-over-HTTP client for the load tests, talking to the application on {@code localhost:port}.
+ */
+class LoadTestClient {
+
+    static final String PASSWORD = "loadtest-password";
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final int port;
+
+    LoadTestClient(int port) {
+        this.port = port;
+    }
+
+    /** Registers the user and returns a bearer token for it. */
+    String register(String email) throws IOException {
+        var registered = post("/api/auth/register", null,
+                Map.of("firstName", "Load", "lastName", "Test", "email", email, "password", PASSWORD));
+        assertEquals(200, registered.statusCode(), registered.body());
+        return login(email);
+    }
+
+    String login(String email) throws IOException {
+        var resp = post("/api/auth/login", null, Map.of("email", email, "password", PASSWORD));
+        assertEquals(200, resp.statusCode(), resp.body());
+        return om.readTree(resp.body()).path("token").asText();
+    }
+
+    static Map<String, Object> entry(LocalDate date) {
+        return Map.of("moodScore", 1 + ThreadLocalRandom.current().nextInt(5),
+                "date", date.toString(),
+                "note", "Load test entry for " + date);
+    }
+
+    HttpResponse<String> get(String path, String token) {
+        return send("GET", path, token, null);
+    }
+
+    HttpResponse<String> post(String path, String token, Object body) {
+        return send("POST", path, token, body);
+    }
+
+    HttpResponse<String> send(String method, String path, String token, Object body) {
+        try {
+            var builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .method(method, body == null
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofString(om.writeValueAsString(body)))
+                    .header("Content-Type", "application/json");
+            if (token != null) builder.header("Authorization", "Bearer " + token);
+            return http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
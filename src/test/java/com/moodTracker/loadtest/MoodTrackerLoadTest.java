@@ -0,0 +1,148 @@
+package com.moodTracker.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the whole application on H2 against {@link FakeOpenRouter} and drives mixed traffic (login, create/update,
+ * range, analyze, plan, streamed plan) from concurrent virtual-thread clients, then checks that the core endpoints
+ * had no errors and kept their p95 within {@code loadtest.p95-budget-ms}; failures carry throughput and
+ * p50/p95/p99 per endpoint. AI calls go through the real hedging/fallback logic and HttpConfig timeouts.
+ * Not part of the normal build:
+ * {@code mvn test -Dtest=MoodTrackerLoadTest -Dloadtests=true [-Dloadtest.seconds=60 -Dloadtest.concurrency=64 -Dloadtest.users=50 -Dloadtest.p95-budget-ms=500]}
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@EnabledIfSystemProperty(named = "loadtests", matches = "true")
+class MoodTrackerLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 50);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 64);
+    private static final int SECONDS = Integer.getInteger("loadtest.seconds", 60);
+    // login is dominated by BCrypt, so the budget is for a loaded laptop rather than a tuned server
+    private static final int P95_BUDGET_MS = Integer.getInteger("loadtest.p95-budget-ms", 500);
+
+    private static FakeOpenRouter openRouter;
+
+    @DynamicPropertySource
+    static void openRouter(DynamicPropertyRegistry registry) throws IOException {
+        openRouter = new FakeOpenRouter(FakeOpenRouter.Behaviour.realistic());
+        registry.add("openrouter.base-url", openRouter::baseUrl);
+    }
+
+    @AfterAll
+    static void stopOpenRouter() {
+        openRouter.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private LoadTestClient client;
+
+    @BeforeEach
+    void client() {
+        client = new LoadTestClient(port);
+    }
+
+    @Test
+    void mixedTraffic() throws Exception {
+        List<String> tokens = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            tokens.add(client.register("loadtest-" + i + "@example.com"));
+            for (int d = 0; d < 14; d++) {
+                client.post("/api/moods/create", tokens.get(i), LoadTestClient.entry(LocalDate.now().minusDays(d)));
+            }
+            // plan needs a saved analysis; with the fake's error rate an occasional miss is fine
+            client.post("/ai/analyze", tokens.get(i), null);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENCY; c++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        int user = ThreadLocalRandom.current().nextInt(USERS);
+                        step(user, tokens.get(user));
+                    }
+                });
+            }
+        }
+
+        String report = "%d users, %d concurrent clients, %d s%n%sOpenRouter stand-in: %s".formatted(
+                USERS, CONCURRENCY, SECONDS, recorder.report(SECONDS), openRouter.outcomes());
+
+        // AI failures must stay contained in the AI endpoints
+        for (String core : List.of("login", "create", "update", "range")) {
+            assertEquals(0, recorder.errors(core), core + " had errors\n" + report);
+            assertTrue(recorder.percentileMillis(core, 0.95) <= P95_BUDGET_MS,
+                    core + " p95 over " + P95_BUDGET_MS + " ms\n" + report);
+        }
+        assertTrue(recorder.count("analyze") > 0, report);
+    }
+
+    private void step(int user, String token) {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        try {
+            if (roll < 5) {
+                timed("login", () -> client.post("/api/auth/login", null,
+                        Map.of("email", "loadtest-" + user + "@example.com", "password", LoadTestClient.PASSWORD)), 200);
+            } else if (roll < 35) {
+                var date = LocalDate.now().minusDays(ThreadLocalRandom.current().nextInt(30));
+                var created = timed("create", () -> client.post("/api/moods/create", token, LoadTestClient.entry(date)), 201, 409);
+                if (created.statusCode() == 409) {
+                    timed("update", () -> client.send("PUT", "/api/moods/update", token, LoadTestClient.entry(date)), 200);
+                }
+            } else if (roll < 70) {
+                var end = LocalDate.now();
+                timed("range", () -> client.get("/api/moods/range?start=" + end.minusDays(30) + "&end=" + end, token), 200);
+            } else if (roll < 85) {
+                timed("analyze", () -> client.post("/ai/analyze", token, null), 200);
+            } else if (roll < 95) {
+                timed("plan", () -> client.post("/ai/plan", token, null), 200);
+            } else {
+                var start = System.nanoTime();
+                var resp = client.get("/ai/plan/stream", token);
+                recorder.record("plan-stream", System.nanoTime() - start,
+                        resp.statusCode() == 200 && resp.body().contains("event:done"));
+            }
+        } catch (RuntimeException e) {
+            recorder.record("client-error", 0, false);
+        }
+    }
+
+    private interface Call {
+        HttpResponse<String> send();
+    }
+
+    private HttpResponse<String> timed(String endpoint, Call call, int... okStatuses) {
+        long start = System.nanoTime();
+        HttpResponse<String> resp = call.send();
+        boolean ok = false;
+        for (int s : okStatuses) ok |= resp.statusCode() == s;
+        recorder.record(endpoint, System.nanoTime() - start, ok);
+        return resp;
+    }
+}
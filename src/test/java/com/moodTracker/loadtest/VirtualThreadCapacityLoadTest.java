@@ -0,0 +1,111 @@
+package com.moodTracker.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bursts of concurrent {@code /ai/analyze} calls against a {@link FakeOpenRouter} answering after 500 ms, with
+ * the response cache and stored analyses disabled so that every call reaches the model. The OpenRouter pool and
+ * per-model limit are raised out of the way, so the request threads are what bounds a burst. A level counts as
+ * sustained when its p99 stays within 1.5x the model latency, i.e. no request waited for a free thread. On
+ * virtual threads that has to hold at twice Boot's default of 200 platform request threads; running with
+ * {@code -Dspring.threads.virtual.enabled=false} shows the platform pool failing it.
+ * Not part of the normal build:
+ * {@code mvn test -Dtest=VirtualThreadCapacityLoadTest -Dloadtests=true}
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "ai.response-cache.max-users=0",
+        "ai.analysis.max-age=0s",
+        "openrouter.max-concurrency-per-model=4000",
+        "openrouter.http.max-connections=4000",
+        "openrouter.http.max-connections-per-route=4000",
+        "spring.datasource.hikari.maximum-pool-size=50",
+        "server.tomcat.accept-count=4096"})
+@ActiveProfiles("loadtest")
+@EnabledIfSystemProperty(named = "loadtests", matches = "true")
+class VirtualThreadCapacityLoadTest {
+
+    private static final Duration MODEL_LATENCY = Duration.ofMillis(500);
+    private static final int[] LEVELS = {100, 200, 400, 800};
+    private static final int REQUIRED_LEVEL = 400;
+    private static final int USERS = 16;
+
+    private static FakeOpenRouter openRouter;
+
+    @DynamicPropertySource
+    static void openRouter(DynamicPropertyRegistry registry) throws IOException {
+        openRouter = new FakeOpenRouter(new FakeOpenRouter.Behaviour(MODEL_LATENCY, Duration.ZERO, 0, 0,
+                Duration.ZERO, 24, Duration.ofMillis(20)));
+        registry.add("openrouter.base-url", openRouter::baseUrl);
+    }
+
+    @AfterAll
+    static void stopOpenRouter() {
+        openRouter.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void analyzeBurstsAreNotCappedByRequestThreads() throws Exception {
+        var client = new LoadTestClient(port);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            tokens.add(client.register("capacity-" + i + "@example.com"));
+            for (int d = 0; d < 7; d++) {
+                client.post("/api/moods/create", tokens.get(i), LoadTestClient.entry(LocalDate.now().minusDays(d)));
+            }
+        }
+        // warm-up: JIT, connection pools, Tomcat
+        burst(client, tokens, 50);
+
+        int sustained = 0;
+        var levels = new StringBuilder();
+        for (int level : LEVELS) {
+            LatencyRecorder recorder = burst(client, tokens, level);
+            String endpoint = "analyze-" + level;
+            assertEquals(0, recorder.errors(endpoint), "failed analyze calls at " + level + " concurrent");
+            double p99 = recorder.percentileMillis(endpoint, 0.99);
+            levels.append(" %d: p99 %.0f ms;".formatted(level, p99));
+            if (p99 > MODEL_LATENCY.toMillis() * 1.5) break;
+            sustained = level;
+        }
+
+        assertTrue(sustained >= REQUIRED_LEVEL,
+                "sustained %d concurrent analyze calls, expected at least %d (%s)"
+                        .formatted(sustained, REQUIRED_LEVEL, levels.toString().trim()));
+    }
+
+    private static LatencyRecorder burst(LoadTestClient client, List<String> tokens, int concurrency) {
+        var recorder = new LatencyRecorder();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                String token = tokens.get(i % tokens.size());
+                callers.execute(() -> {
+                    long start = System.nanoTime();
+                    var resp = client.post("/ai/analyze", token, null);
+                    recorder.record("analyze-" + concurrency, System.nanoTime() - start, resp.statusCode() == 200);
+                });
+            }
+        }
+        return recorder;
+    }
+}
@@ -0,0 +1,43 @@
+package com.moodTracker.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevocationBloomFilterTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void hasNoFalseNegatives() {
+        var filter = new RevocationBloomFilter(KEYS, 0.01);
+        List<String> keys = new ArrayList<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            String key = UUID.randomUUID().toString();
+            keys.add(key);
+            filter.put(key);
+        }
+
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key), "false negative for " + key);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        var filter = new RevocationBloomFilter(KEYS, 0.01);
+        for (int i = 0; i < KEYS; i++) filter.put(UUID.randomUUID().toString());
+
+        int falsePositives = 0;
+        for (int i = 0; i < KEYS; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) falsePositives++;
+        }
+
+        double rate = falsePositives / (double) KEYS;
+        assertTrue(rate < 0.02, "false positive rate " + rate);
+    }
+}
@@ -0,0 +1,114 @@
+package com.moodTracker.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBlacklistServiceTest {
+
+    private final Instant exp = Instant.now().plusSeconds(3600);
+
+    @Test
+    void revokedTokenIsBlocked() {
+        var service = new TokenBlacklistService(new InMemoryRevocationStore(), 1000);
+
+        service.revoke("token", "jti-1", exp);
+
+        assertTrue(service.isRevoked("token", "jti-1"));
+        assertFalse(service.isRevoked("other", "jti-2"));
+    }
+
+    @Test
+    void tokenWithoutJtiIsBlockedByHash() {
+        var service = new TokenBlacklistService(new InMemoryRevocationStore(), 1000);
+
+        service.revoke("a.b.c", null, exp);
+
+        assertTrue(service.isRevoked("a.b.c", null));
+        assertFalse(service.isRevoked("a.b.d", null));
+    }
+
+    @Test
+    void revocationsSurviveSweep() {
+        var service = new TokenBlacklistService(new InMemoryRevocationStore(), 1000);
+        service.revoke("token", "jti-1", exp);
+
+        service.sweep();
+
+        assertTrue(service.isRevoked("token", "jti-1"));
+    }
+
+    @Test
+    void sweepDropsExpiredRevocations() {
+        var store = new InMemoryRevocationStore();
+        var service = new TokenBlacklistService(store, 1000);
+        // two minutes back lands in a wheel bucket that is already due
+        service.revoke("token", "jti-1", Instant.now().minusSeconds(120));
+
+        service.sweep();
+
+        assertEquals(0, store.size());
+        assertFalse(service.isRevoked("token", "jti-1"));
+    }
+
+    @Test
+    void revocationDuringSweepIsNotLost() {
+        var store = new SnapshotThenRevokeStore();
+        var service = new TokenBlacklistService(store, 1000);
+        // the sweep reads its live keys, then the logout commits before the new filter is swapped in
+        store.duringLiveKeys = () -> service.revoke("token", "jti-1", exp);
+
+        service.sweep();
+
+        assertTrue(service.isRevoked("token", "jti-1"));
+    }
+
+    @Test
+    void concurrentRevocationsSurviveRepeatedSweeps() throws Exception {
+        var service = new TokenBlacklistService(new InMemoryRevocationStore(), 10_000);
+        var done = new AtomicBoolean();
+        List<String> jtis = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) jtis.add(UUID.randomUUID().toString());
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            Future<?> sweeper = pool.submit(() -> {
+                while (!done.get()) service.sweep();
+            });
+            Future<?> revoker = pool.submit(() -> {
+                for (String jti : jtis) service.revoke("token", jti, exp);
+            });
+            revoker.get();
+            done.set(true);
+            sweeper.get();
+        }
+
+        for (String jti : jtis) {
+            assertTrue(service.isRevoked("token", jti), "revocation lost for " + jti);
+        }
+    }
+
+    /** Hands out the live keys as they were before running a hook, like a read that raced a commit. */
+    private static final class SnapshotThenRevokeStore extends InMemoryRevocationStore {
+        Runnable duringLiveKeys;
+
+        @Override
+        public List<String> liveKeys(Instant now) {
+            List<String> snapshot = super.liveKeys(now);
+            Runnable hook = duringLiveKeys;
+            duringLiveKeys = null;
+            if (hook != null) hook.run();
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.moodTracker.security;
+
+import com.moodTracker.repository.UserRepository;
+import com.moodTracker.repository.UserRepository.TokenCutoff;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserInvalidationServiceTest {
+
+    private static final long USER_ID = 9L;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserInvalidationService service = new UserInvalidationService(userRepository, 3_600_000);
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findTokenCutoffsSince(any())).thenReturn(List.of());
+        service.init();
+    }
+
+    @Test
+    void tokenVersionDecidesWhenTheClaimIsPresent() {
+        Instant changedAt = Instant.now();
+        when(userRepository.findTokenCutoff(USER_ID)).thenReturn(Optional.of(cutoff(2, changedAt)));
+        service.refresh(USER_ID);
+
+        Date sameSecond = Date.from(changedAt.truncatedTo(ChronoUnit.SECONDS));
+        assertTrue(service.isInvalidated(USER_ID, sameSecond, 1));
+        // a login right after the change, in the same second, carries the new version
+        assertFalse(service.isInvalidated(USER_ID, sameSecond, 2));
+    }
+
+    @Test
+    void tokenWithoutVersionFromTheSameSecondIsInvalid() {
+        Instant changedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusMillis(900);
+        when(userRepository.findTokenCutoff(USER_ID)).thenReturn(Optional.of(cutoff(1, changedAt)));
+        service.refresh(USER_ID);
+
+        assertTrue(service.isInvalidated(USER_ID, Date.from(changedAt.truncatedTo(ChronoUnit.SECONDS)), null));
+        assertFalse(service.isInvalidated(USER_ID, Date.from(changedAt.plusSeconds(1)), null));
+    }
+
+    @Test
+    void changeMadeOnAnotherInstanceArrivesWithTheSync() {
+        assertFalse(service.isInvalidated(USER_ID, new Date(), 0));
+
+        when(userRepository.findTokenCutoffsSince(any())).thenReturn(List.of(cutoff(1, Instant.now())));
+        service.syncFromStore();
+
+        assertTrue(service.isInvalidated(USER_ID, new Date(), 0));
+    }
+
+    @Test
+    void changesOlderThanTheTokenLifetimeAreDropped() {
+        when(userRepository.findTokenCutoffsSince(any())).thenReturn(List.of(cutoff(1, Instant.now().minusSeconds(7200))));
+        service.syncFromStore();
+
+        assertFalse(service.isInvalidated(USER_ID, new Date(0), 0));
+    }
+
+    private static TokenCutoff cutoff(int version, Instant at) {
+        return new TokenCutoff() {
+            @Override
+            public Long getId() {
+                return USER_ID;
+            }
+
+            @Override
+            public int getTokenVersion() {
+                return version;
+            }
+
+            @Override
+            public Instant getTokensInvalidBefore() {
+                return at;
+            }
+        };
+    }
+}
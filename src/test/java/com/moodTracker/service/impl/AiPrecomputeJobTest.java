@@ -0,0 +1,108 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.dto.MoodEntryAiResponse;
+import com.moodTracker.repository.AiAnalysisRepository;
+import com.moodTracker.repository.AiAnalysisRepository.StaleAnalysis;
+import com.moodTracker.repository.ScheduledJobRepository;
+import com.moodTracker.repository.ScheduledJobRepository.JobState;
+import com.moodTracker.service.AiAdviceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AiPrecomputeJobTest {
+
+    private final AiAdviceService aiAdviceService = mock(AiAdviceService.class);
+    private final AiAnalysisRepository aiAnalysisRepository = mock(AiAnalysisRepository.class);
+    private final ScheduledJobRepository jobRepository = mock(ScheduledJobRepository.class);
+    private final NavigableSet<Long> stale = new ConcurrentSkipListSet<>(List.of(1L, 2L, 3L));
+    private final Set<Long> failOnce = ConcurrentHashMap.newKeySet();
+    private final Set<Long> failAlways = ConcurrentHashMap.newKeySet();
+    private AiPrecomputeJob job;
+
+    @BeforeEach
+    void setUp() {
+        // one at a time, pages of two, no pacing to speak of
+        job = new AiPrecomputeJob(aiAdviceService, aiAnalysisRepository, jobRepository, new SimpleMeterRegistry(),
+                1, 600_000, 2, Duration.ofMinutes(5), Duration.ofMinutes(10), Duration.ofHours(12), 3);
+        when(jobRepository.state(AiPrecomputeJob.JOB)).thenReturn(new JobState(0, null));
+        when(jobRepository.tryLock(eq(AiPrecomputeJob.JOB), anyString(), any(), any())).thenReturn(true);
+        when(jobRepository.renew(eq(AiPrecomputeJob.JOB), anyString(), any(), anyLong())).thenReturn(true);
+        when(aiAnalysisRepository.findStale(anyLong(), any(), anyInt())).thenAnswer(inv -> {
+            long afterId = inv.getArgument(0);
+            int limit = inv.getArgument(2);
+            return stale.tailSet(afterId, false).stream().limit(limit).map(AiPrecomputeJobTest::user).toList();
+        });
+        when(aiAdviceService.analyze(anyLong())).thenAnswer(inv -> {
+            Long userId = inv.getArgument(0);
+            if (failOnce.remove(userId) || failAlways.contains(userId)) {
+                return new MoodEntryAiResponse(0, "", List.of());
+            }
+            stale.remove(userId);
+            return new MoodEntryAiResponse(3.0, "ok", List.of());
+        });
+    }
+
+    @Test
+    void failedUserIsRetriedInsteadOfSkipped() {
+        failOnce.add(2L);
+
+        job.run();
+
+        verify(aiAdviceService, times(2)).analyze(2L);
+        verify(aiAdviceService, times(1)).analyze(3L);
+        verify(jobRepository).complete(eq(AiPrecomputeJob.JOB), anyString(), any());
+    }
+
+    @Test
+    void userFailingEveryAttemptIsLeftForTheNextRun() {
+        failAlways.add(2L);
+
+        job.run();
+
+        verify(aiAdviceService, times(3)).analyze(2L);
+        verify(aiAdviceService, times(1)).analyze(3L);
+        verify(jobRepository).complete(eq(AiPrecomputeJob.JOB), anyString(), any());
+    }
+
+    @Test
+    void leaseIsRenewedBeforeEachUser() {
+        job.run();
+
+        // three users started, then one renewal per page with the new checkpoint
+        verify(jobRepository, times(5)).renew(eq(AiPrecomputeJob.JOB), anyString(), any(), anyLong());
+    }
+
+    @Test
+    void losingTheLeaseStopsBeforeTheNextUser() {
+        when(jobRepository.renew(eq(AiPrecomputeJob.JOB), anyString(), any(), anyLong())).thenReturn(false);
+
+        job.run();
+
+        verify(aiAdviceService, never()).analyze(anyLong());
+        verify(jobRepository, never()).complete(anyString(), anyString(), any());
+        verify(jobRepository, never()).release(anyString(), anyString());
+    }
+
+    private static StaleAnalysis user(long id) {
+        return () -> id;
+    }
+}
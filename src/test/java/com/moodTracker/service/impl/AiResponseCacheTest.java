@@ -0,0 +1,63 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.dto.AiPlan;
+import com.moodTracker.dto.MoodEntryAiResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AiResponseCacheTest {
+
+    private final AiResponseCache cache = new AiResponseCache(100, Duration.ofHours(1));
+
+    @Test
+    void keyIsStableForTheSameInputs() {
+        assertEquals(AiResponseCache.key("model", "v2", "entries"), AiResponseCache.key("model", "v2", "entries"));
+        assertEquals(64, AiResponseCache.key("model").length());
+    }
+
+    @Test
+    void keyKeepsPartBoundaries() {
+        assertNotEquals(AiResponseCache.key("ab", "c"), AiResponseCache.key("a", "bc"));
+        assertNotEquals(AiResponseCache.key("a", "b"), AiResponseCache.key("b", "a"));
+        assertNotEquals(AiResponseCache.key("a"), AiResponseCache.key("a", ""));
+    }
+
+    @Test
+    void differentKeyMisses() {
+        var response = new MoodEntryAiResponse(3.5, "summary", List.of("walk"));
+        cache.putAnalysis(1L, "k1", response);
+
+        assertEquals(Optional.of(response), cache.getAnalysis(1L, "k1"));
+        assertTrue(cache.getAnalysis(1L, "k2").isEmpty());
+        assertTrue(cache.getAnalysis(2L, "k1").isEmpty());
+    }
+
+    @Test
+    void evictDropsAnalysisAndPlan() {
+        cache.putAnalysis(1L, "k", new MoodEntryAiResponse(3.5, "summary", List.of()));
+        cache.putPlan(1L, "k", new AiPlan("plan"));
+
+        cache.evict(1L);
+
+        assertTrue(cache.getAnalysis(1L, "k").isEmpty());
+        assertTrue(cache.getPlan(1L, "k").isEmpty());
+    }
+
+    @Test
+    void latestPutWins() {
+        var first = new AiPlan("first");
+        var second = new AiPlan("second");
+        cache.putPlan(1L, "k1", first);
+        cache.putPlan(1L, "k2", second);
+
+        assertTrue(cache.getPlan(1L, "k1").isEmpty());
+        assertEquals(Optional.of(second), cache.getPlan(1L, "k2"));
+    }
+}
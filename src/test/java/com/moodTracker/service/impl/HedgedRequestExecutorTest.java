@@ -0,0 +1,175 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.service.impl.HedgedRequestExecutor.Attempt;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgedRequestExecutorTest {
+
+    private static final Duration LONG = Duration.ofSeconds(30);
+
+    private final HedgedRequestExecutor executor =
+            new HedgedRequestExecutor(1, new OpenRouterMetrics(new SimpleMeterRegistry()), ObservationRegistry.NOOP);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void fastFirstAnswerNeverStartsTheFallback() {
+        var fallbackCalls = new AtomicInteger();
+
+        Optional<String> result = executor.firstValid("test", List.of(
+                new Attempt<>("a", () -> "first"),
+                new Attempt<>("b", () -> {
+                    fallbackCalls.incrementAndGet();
+                    return "second";
+                })), s -> true, LONG, LONG);
+
+        assertEquals(Optional.of("first"), result);
+        assertEquals(0, fallbackCalls.get());
+    }
+
+    @Test
+    void slowAttemptIsHedgedAndCancelledWhenTheHedgeWins() throws Exception {
+        var firstCancelled = new CountDownLatch(1);
+
+        Optional<String> result = executor.firstValid("test", List.of(
+                new Attempt<>("a", () -> {
+                    try {
+                        Thread.sleep(LONG);
+                        return "slow";
+                    } catch (InterruptedException e) {
+                        firstCancelled.countDown();
+                        throw e;
+                    }
+                }),
+                new Attempt<>("b", () -> "hedge")), s -> true, Duration.ofMillis(50), LONG);
+
+        assertEquals(Optional.of("hedge"), result);
+        assertTrue(firstCancelled.await(5, TimeUnit.SECONDS), "losing attempt was not cancelled");
+    }
+
+    @Test
+    void failedAttemptStartsTheNextWithoutWaitingForTheHedgeDelay() {
+        long start = System.nanoTime();
+
+        Optional<String> result = executor.firstValid("test", List.of(
+                new Attempt<String>("a", () -> {
+                    throw new IllegalStateException("429");
+                }),
+                new Attempt<>("b", () -> "fallback")), s -> true, LONG, LONG);
+
+        assertEquals(Optional.of("fallback"), result);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "waited for the hedge delay");
+    }
+
+    @Test
+    void invalidAnswersAreSkipped() {
+        Optional<String> result = executor.firstValid("test", List.of(
+                new Attempt<>("a", () -> ""),
+                new Attempt<>("b", () -> "valid")), s -> !s.isEmpty(), LONG, LONG);
+
+        assertEquals(Optional.of("valid"), result);
+    }
+
+    @Test
+    void modelAtItsLimitIsSkipped() {
+        var called = new AtomicBoolean();
+        assertTrue(executor.tryAcquire("a"));
+        try {
+            Optional<String> result = executor.firstValid("test", List.of(
+                    new Attempt<>("a", () -> {
+                        called.set(true);
+                        return "limited";
+                    }),
+                    new Attempt<>("b", () -> "other")), s -> true, LONG, LONG);
+
+            assertEquals(Optional.of("other"), result);
+            assertFalse(called.get());
+            assertFalse(executor.tryAcquire("a"));
+        } finally {
+            executor.release("a");
+        }
+        assertTrue(executor.tryAcquire("a"));
+    }
+
+    @Test
+    void deadlineEndsTheChainEmpty() {
+        Optional<String> result = executor.firstValid("test", List.of(
+                new Attempt<>("a", () -> {
+                    Thread.sleep(LONG);
+                    return "late";
+                })), s -> true, LONG, Duration.ofMillis(100));
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void permitIsReturnedAfterEachAttempt() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Optional.of("ok"),
+                    executor.firstValid("test", List.of(new Attempt<>("a", () -> "ok")), s -> true, LONG, LONG));
+        }
+        assertTrue(executor.tryAcquire("a"));
+        executor.release("a");
+    }
+
+    @Test
+    void cancellingAttemptsBeforeTheyStartReturnsTheirPermits() throws Exception {
+        // the only thread is busy, so both attempts stay queued until the deadline cancels them
+        ExecutorService oneThread = Executors.newSingleThreadExecutor();
+        var queued = new HedgedRequestExecutor(1, new OpenRouterMetrics(new SimpleMeterRegistry()),
+                ObservationRegistry.NOOP, oneThread);
+        var busy = new CountDownLatch(1);
+        oneThread.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        var called = new AtomicBoolean();
+        try {
+            Optional<String> result = queued.firstValid("test", List.of(
+                    new Attempt<>("a", () -> {
+                        called.set(true);
+                        return "first";
+                    }),
+                    new Attempt<>("b", () -> {
+                        called.set(true);
+                        return "hedge";
+                    })), s -> true, Duration.ofMillis(20), Duration.ofMillis(200));
+
+            assertTrue(result.isEmpty());
+            assertEquals(1, queued.availablePermits("a"));
+            assertEquals(1, queued.availablePermits("b"));
+
+            busy.countDown();
+            oneThread.shutdown();
+            assertTrue(oneThread.awaitTermination(5, TimeUnit.SECONDS));
+            assertFalse(called.get());
+            assertEquals(1, queued.availablePermits("a"));
+        } finally {
+            busy.countDown();
+            queued.shutdown();
+        }
+    }
+}
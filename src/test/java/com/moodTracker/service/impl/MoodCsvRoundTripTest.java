@@ -0,0 +1,89 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodTracker.dto.MoodEntryResponse;
+import com.moodTracker.dto.MoodImportResponse;
+import com.moodTracker.repository.MoodEntryJdbcRepository;
+import com.moodTracker.repository.MoodEntryJdbcRepository.UpsertRow;
+import com.moodTracker.service.DataVersionService;
+import com.moodTracker.service.MoodExportService.Format;
+import com.moodTracker.service.MoodStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MoodCsvRoundTripTest {
+
+    private static final long USER_ID = 3L;
+
+    private final MoodEntryJdbcRepository jdbcRepository = mock(MoodEntryJdbcRepository.class);
+    private final MoodEntryValidator validator = mock(MoodEntryValidator.class);
+    private final ObjectMapper om = new ObjectMapper();
+
+    @Test
+    void exportedCsvImportsBackUnchanged() {
+        // a page size of 2 makes the export seek past the second entry for the last one
+        LocalDate day = LocalDate.now().minusDays(3);
+        List<MoodEntryResponse> entries = List.of(
+                new MoodEntryResponse(1L, day, 4, "plain note"),
+                new MoodEntryResponse(2L, day.plusDays(1), 2, "first line\nsecond, with \"quotes\""),
+                new MoodEntryResponse(3L, day.plusDays(2), 5, "windows\r\nline break"));
+        when(jdbcRepository.findExportPage(eq(USER_ID), isNull(), anyLong(), eq(2))).thenReturn(entries.subList(0, 2));
+        when(jdbcRepository.findExportPage(USER_ID, day.plusDays(1), 2L, 2)).thenReturn(entries.subList(2, 3));
+
+        var out = new ByteArrayOutputStream();
+        new MoodExportServiceImpl(jdbcRepository, om, 2).export(USER_ID, Format.CSV, out);
+
+        List<UpsertRow> imported = new ArrayList<>();
+        when(validator.validate(any())).thenReturn(Optional.empty());
+        when(jdbcRepository.upsertBatch(anyList())).thenAnswer(inv -> {
+            List<UpsertRow> rows = inv.getArgument(0);
+            imported.addAll(rows);
+            return new int[rows.size()];
+        });
+        var importer = new MoodImportServiceImpl(jdbcRepository, validator, mock(MoodStatsService.class),
+                mock(AiResponseCache.class), mock(DataVersionService.class), om, mock(PlatformTransactionManager.class),
+                500, 5000);
+        MoodImportResponse result = importer.importEntries(USER_ID,
+                new ByteArrayInputStream(out.toByteArray()), "text/csv");
+
+        assertEquals(3, result.total());
+        assertEquals(0, result.failed());
+        assertEquals(entries.size(), imported.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(entries.get(i).date(), imported.get(i).entryDate().toString());
+            assertEquals(entries.get(i).moodScore(), imported.get(i).moodScore());
+            assertEquals(entries.get(i).note(), imported.get(i).note());
+        }
+    }
+
+    @Test
+    void recordsSpanLinesOnlyInsideQuotes() throws IOException {
+        var csv = new MoodImportServiceImpl.CsvRecords(new BufferedReader(new StringReader(
+                "a,\"b\r\nc\",d\r\n\"\"\"x\"\"\",,\ne")));
+
+        assertEquals(List.of("a", "b\r\nc", "d"), csv.next());
+        assertEquals(List.of("\"x\"", "", ""), csv.next());
+        assertEquals(List.of("e"), csv.next());
+        assertNull(csv.next());
+    }
+}
@@ -0,0 +1,126 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.repository.MoodEntryOutboxRepository;
+import com.moodTracker.repository.MoodEntryOutboxRepository.OutboxRow;
+import com.moodTracker.repository.ScheduledJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MoodEntryOutboxRelayTest {
+
+    private static final int BATCH_SIZE = 3;
+
+    private final MoodEntryOutboxRepository outboxRepository = mock(MoodEntryOutboxRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    private final ScheduledJobRepository jobRepository = mock(ScheduledJobRepository.class);
+    private final List<ProducerRecord<String, String>> sent = new ArrayList<>();
+    private final List<Boolean> outcomes = new ArrayList<>();
+    private MoodEntryOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new MoodEntryOutboxRelay(outboxRepository, kafkaTemplate, jobRepository, new SimpleMeterRegistry(),
+                "events", BATCH_SIZE, Duration.ofSeconds(1), Duration.ofSeconds(30));
+        when(jobRepository.tryLock(eq(MoodEntryOutboxRelay.JOB), anyString(), any(), any())).thenReturn(true);
+        when(jobRepository.renew(eq(MoodEntryOutboxRelay.JOB), anyString(), any(), anyLong())).thenReturn(true);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+            ProducerRecord<String, String> record = inv.getArgument(0);
+            sent.add(record);
+            boolean ok = outcomes.isEmpty() || outcomes.remove(0);
+            return ok
+                    ? CompletableFuture.completedFuture(new SendResult<>(record, null))
+                    : CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"));
+        });
+    }
+
+    @Test
+    void publishesBatchesUntilTheOutboxIsEmpty() {
+        when(outboxRepository.findOldest(BATCH_SIZE))
+                .thenReturn(rows(1, 2, 3))
+                .thenReturn(rows(4));
+
+        assertEquals(4, relay.drain());
+
+        verify(outboxRepository).delete(List.of(1L, 2L, 3L));
+        verify(outboxRepository).delete(List.of(4L));
+        assertEquals("10", sent.get(0).key());
+        assertEquals("1", new String(sent.get(0).headers().lastHeader(MoodEntryOutboxRelay.OUTBOX_ID_HEADER).value(),
+                StandardCharsets.UTF_8));
+        verify(jobRepository).release(eq(MoodEntryOutboxRelay.JOB), anyString());
+    }
+
+    @Test
+    void failedSendStopsTheDrainAndKeepsEverythingFromIt() {
+        when(outboxRepository.findOldest(BATCH_SIZE)).thenReturn(rows(1, 2, 3));
+        outcomes.addAll(List.of(true, false, true));
+
+        assertEquals(0, relay.drain());
+
+        // 3 was acknowledged but must not be removed ahead of 2, or 2 would be retried after it
+        verify(outboxRepository).delete(List.of(1L));
+        verify(outboxRepository, times(1)).findOldest(anyInt());
+        verify(jobRepository, never()).renew(anyString(), anyString(), any(), anyLong());
+        verify(jobRepository).release(eq(MoodEntryOutboxRelay.JOB), anyString());
+    }
+
+    @Test
+    void firstSendFailingDeletesNothing() {
+        when(outboxRepository.findOldest(BATCH_SIZE)).thenReturn(rows(1, 2));
+        outcomes.addAll(List.of(false, true));
+
+        assertEquals(0, relay.drain());
+
+        verify(outboxRepository, never()).delete(anyList());
+    }
+
+    @Test
+    void anotherInstanceHoldingTheLeaseSkipsTheRun() {
+        when(jobRepository.tryLock(eq(MoodEntryOutboxRelay.JOB), anyString(), any(), any())).thenReturn(false);
+
+        assertEquals(0, relay.drain());
+
+        verify(outboxRepository, never()).findOldest(anyInt());
+        assertEquals(0, sent.size());
+        verify(jobRepository, never()).release(anyString(), anyString());
+    }
+
+    @Test
+    void losingTheLeaseBetweenBatchesStops() {
+        when(outboxRepository.findOldest(BATCH_SIZE)).thenReturn(rows(1, 2, 3));
+        when(jobRepository.renew(eq(MoodEntryOutboxRelay.JOB), anyString(), any(), anyLong())).thenReturn(false);
+
+        assertEquals(3, relay.drain());
+
+        verify(outboxRepository, times(1)).findOldest(anyInt());
+    }
+
+    private static List<OutboxRow> rows(long... ids) {
+        List<OutboxRow> rows = new ArrayList<>();
+        for (long id : ids) rows.add(new OutboxRow(id, 10L, "{\"entryId\":" + id + "}"));
+        return rows;
+    }
+}
@@ -0,0 +1,144 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodTracker.dto.MoodEntryRequest;
+import com.moodTracker.repository.MoodEntryOutboxRepository;
+import com.moodTracker.service.MoodEntryService;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes mood entries through {@link MoodEntryService}, then drains the outbox into an embedded broker with the
+ * producer's batching settings from application.properties and checks the relay keeps up with
+ * {@code loadtest.outbox.min-events-per-second}. Checks that every event arrives once, keyed by user id, in outbox
+ * order per user.
+ * Not part of the normal build:
+ * {@code mvn test -Dtest=MoodEntryOutboxThroughputTest -Dloadtests=true [-Dloadtest.events=20000 -Dloadtest.outbox.min-events-per-second=2000]}
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "outbox.enabled=true",
+        // the test drains explicitly; keep the scheduled relay out of the measurement
+        "outbox.relay.interval-ms=3600000",
+        "openrouter.base-url=http://localhost:9"
+})
+@ActiveProfiles("loadtest")
+@EmbeddedKafka(partitions = 6, topics = "mood-entry-events")
+@EnabledIfSystemProperty(named = "loadtests", matches = "true")
+class MoodEntryOutboxThroughputTest {
+
+    private static final int USERS = 100;
+    private static final int EVENTS_PER_USER = Integer.getInteger("loadtest.events", 20_000) / USERS;
+    private static final int MIN_EVENTS_PER_SECOND = Integer.getInteger("loadtest.outbox.min-events-per-second", 2_000);
+
+    @Autowired
+    private MoodEntryService moodEntryService;
+    @Autowired
+    private MoodEntryOutboxRelay relay;
+    @Autowired
+    private MoodEntryOutboxRepository outboxRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+    @Value("${outbox.relay.batch-size}")
+    private int batchSize;
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    @Test
+    void relaysEveryEventOnceInOrderPerUser() throws Exception {
+        List<Long> users = new ArrayList<>(USERS);
+        for (int u = 0; u < USERS; u++) {
+            String email = "outbox-" + u + "@example.com";
+            jdbc.update("INSERT INTO users (first_name, last_name, email, password) VALUES ('Out', 'Box', ?, 'x')", email);
+            users.add(jdbc.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email));
+        }
+
+        // one UPDATED after the CREATED events per user, so ordering per key is visible
+        LocalDate today = LocalDate.now();
+        for (Long userId : users) {
+            for (int d = 0; d < EVENTS_PER_USER - 1; d++) {
+                moodEntryService.create(userId, new MoodEntryRequest(1 + d % 5, today.minusDays(d), "Outbox entry " + d));
+            }
+            moodEntryService.update(userId, new MoodEntryRequest(5, today, "Updated"));
+        }
+        int events = USERS * EVENTS_PER_USER;
+        assertEquals(events, outboxRepository.count());
+
+        long start = System.nanoTime();
+        long published = relay.drain();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(events, published);
+        assertEquals(0, outboxRepository.count());
+
+        double perSecond = events / seconds;
+        assertTrue(perSecond >= MIN_EVENTS_PER_SECOND, "%d events relayed in %.0f ms: %.0f events/s (relay batch %d)"
+                .formatted(events, seconds * 1000, perSecond, batchSize));
+
+        Map<String, List<ConsumerRecord<String, String>>> byKey = consume(events);
+
+        assertEquals(USERS, byKey.size());
+        for (Long userId : users) {
+            List<ConsumerRecord<String, String>> records = byKey.get(userId.toString());
+            assertEquals(EVENTS_PER_USER, records.size());
+            long previous = 0;
+            for (ConsumerRecord<String, String> record : records) {
+                long outboxId = Long.parseLong(new String(
+                        record.headers().lastHeader(MoodEntryOutboxRelay.OUTBOX_ID_HEADER).value(), StandardCharsets.UTF_8));
+                assertTrue(outboxId > previous, "events for user " + userId + " out of order");
+                previous = outboxId;
+                assertEquals(userId.longValue(), om.readTree(record.value()).path("userId").asLong());
+            }
+            JsonNode last = om.readTree(records.get(records.size() - 1).value());
+            assertEquals("UPDATED", last.path("type").asText());
+        }
+    }
+
+    private Map<String, List<ConsumerRecord<String, String>>> consume(int expected) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "outbox-throughput-test");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+
+        Map<String, List<ConsumerRecord<String, String>>> byKey = new HashMap<>();
+        int received = 0;
+        long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        try (var consumer = new KafkaConsumer<>(props, new StringDeserializer(), new StringDeserializer())) {
+            consumer.subscribe(List.of("mood-entry-events"));
+            while (received < expected && System.nanoTime() < deadline) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(500))) {
+                    byKey.computeIfAbsent(record.key(), k -> new ArrayList<>()).add(record);
+                    received++;
+                }
+            }
+        }
+        assertEquals(expected, received);
+        return byKey;
+    }
+}
@@ -0,0 +1,155 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.moodTracker.dto.MoodImportResponse;
+import com.moodTracker.dto.MoodImportRowResult;
+import com.moodTracker.exception.BadRequestException;
+import com.moodTracker.repository.MoodEntryJdbcRepository;
+import com.moodTracker.repository.MoodEntryJdbcRepository.UpsertRow;
+import com.moodTracker.service.DataVersionService;
+import com.moodTracker.service.MoodStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MoodImportServiceImplTest {
+
+    private static final long USER_ID = 5L;
+    private static final LocalDate DAY = LocalDate.now().minusDays(10);
+
+    private final MoodEntryJdbcRepository jdbcRepository = mock(MoodEntryJdbcRepository.class);
+    private final MoodEntryValidator validator = mock(MoodEntryValidator.class);
+    private final MoodStatsService moodStatsService = mock(MoodStatsService.class);
+    private final AiResponseCache aiResponseCache = mock(AiResponseCache.class);
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ObjectMapper om = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @BeforeEach
+    void setUp() {
+        when(validator.validate(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void rowsOverTheCapAreRejectedBeforeAnythingIsWritten() {
+        var importer = importer(1, 2);
+
+        assertThrows(BadRequestException.class, () -> importer.importEntries(USER_ID,
+                json(entry(DAY, 3), entry(DAY.plusDays(1), 3), entry(DAY.plusDays(2), 3)), "application/json"));
+
+        verify(jdbcRepository, never()).upsertBatch(anyList());
+        verify(transactionManager, never()).getTransaction(any());
+        verifyNoSideEffects();
+    }
+
+    @Test
+    void malformedBodyPartwayWritesNothing() {
+        var body = "[" + entry(DAY, 3) + "," + entry(DAY.plusDays(1), 4) + ", {\"moodScore\": ";
+
+        assertThrows(BadRequestException.class, () -> importer(1, 100).importEntries(USER_ID,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), "application/json"));
+
+        verify(jdbcRepository, never()).upsertBatch(anyList());
+        verifyNoSideEffects();
+    }
+
+    @Test
+    void writeFailingInALaterBatchRollsBackEverything() {
+        when(jdbcRepository.upsertBatch(anyList()))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DataIntegrityViolationException("lost connection"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> importer(1, 100).importEntries(USER_ID,
+                json(entry(DAY, 3), entry(DAY.plusDays(1), 4)), "application/json"));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verifyNoSideEffects();
+    }
+
+    @Test
+    void statusesComeFromTheStoredEntries() {
+        when(jdbcRepository.findByDates(eq(USER_ID), anyCollection())).thenReturn(Map.of(
+                DAY, new UpsertRow(USER_ID, DAY, 3, "same"),
+                DAY.plusDays(2), new UpsertRow(USER_ID, DAY.plusDays(2), 1, null)));
+
+        MoodImportResponse result = importer(500, 100).importEntries(USER_ID, json(
+                entry(DAY, 3, "same"),
+                entry(DAY.plusDays(1), 4, null),
+                entry(DAY.plusDays(1), 5, null),
+                entry(DAY.plusDays(2), 2, null)), "application/json");
+
+        assertEquals(List.of("UNCHANGED", "INSERTED", "UPDATED", "UPDATED"),
+                result.rows().stream().map(MoodImportRowResult::status).toList());
+        assertEquals(1, result.inserted());
+        assertEquals(2, result.updated());
+        assertEquals(1, result.unchanged());
+        // the unchanged row is not written
+        verify(jdbcRepository).upsertBatch(List.of(
+                new UpsertRow(USER_ID, DAY.plusDays(1), 4, null),
+                new UpsertRow(USER_ID, DAY.plusDays(1), 5, null),
+                new UpsertRow(USER_ID, DAY.plusDays(2), 2, null)));
+        verify(moodStatsService).recompute(USER_ID);
+        verify(dataVersionService).bump(USER_ID);
+        verify(aiResponseCache).evict(USER_ID);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void importChangingNothingHasNoSideEffects() {
+        when(jdbcRepository.findByDates(eq(USER_ID), anyCollection()))
+                .thenReturn(Map.of(DAY, new UpsertRow(USER_ID, DAY, 3, "same")));
+
+        MoodImportResponse result = importer(500, 100).importEntries(USER_ID,
+                json(entry(DAY, 3, "same")), "application/json");
+
+        assertEquals(1, result.unchanged());
+        verify(jdbcRepository, never()).upsertBatch(anyList());
+        verifyNoSideEffects();
+    }
+
+    private MoodImportServiceImpl importer(int batchSize, int maxRows) {
+        return new MoodImportServiceImpl(jdbcRepository, validator, moodStatsService, aiResponseCache,
+                dataVersionService, om, transactionManager, batchSize, maxRows);
+    }
+
+    private void verifyNoSideEffects() {
+        verify(moodStatsService, never()).recompute(anyLong());
+        verify(dataVersionService, never()).bump(anyLong());
+        verify(aiResponseCache, never()).evict(anyLong());
+    }
+
+    private static ByteArrayInputStream json(String... entries) {
+        return new ByteArrayInputStream(("[" + String.join(",", entries) + "]").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String entry(LocalDate date, int score) {
+        return entry(date, score, null);
+    }
+
+    private static String entry(LocalDate date, int score, String note) {
+        return "{\"date\":\"" + date + "\",\"moodScore\":" + score
+                + (note == null ? "" : ",\"note\":\"" + note + "\"") + "}";
+    }
+}
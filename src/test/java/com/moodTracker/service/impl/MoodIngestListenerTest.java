@@ -0,0 +1,109 @@
+package com.moodTracker.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.moodTracker.dto.MoodEntryEvent;
+import com.moodTracker.repository.MoodEntryJdbcRepository;
+import com.moodTracker.repository.MoodEntryJdbcRepository.EntryKey;
+import com.moodTracker.repository.UserRepository;
+import com.moodTracker.service.DataVersionService;
+import com.moodTracker.service.MoodEntryOutboxService;
+import com.moodTracker.service.MoodStatsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MoodIngestListenerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 1);
+
+    private final MoodEntryJdbcRepository jdbcRepository = mock(MoodEntryJdbcRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MoodEntryValidator validator = mock(MoodEntryValidator.class);
+    private final MoodStatsService moodStatsService = mock(MoodStatsService.class);
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+    private final MoodEntryOutboxService outboxService = mock(MoodEntryOutboxService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private MoodIngestListener listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        listener = new MoodIngestListener(jdbcRepository, userRepository, validator, moodStatsService,
+                dataVersionService, outboxService, mock(AiResponseCache.class), mock(KafkaTemplate.class),
+                new ObjectMapper().registerModule(new JavaTimeModule()), transactionManager,
+                new SimpleMeterRegistry(), "mood-readings.DLT");
+        when(validator.validate(any())).thenReturn(Optional.empty());
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+        when(outboxService.isEnabled()).thenReturn(true);
+    }
+
+    @Test
+    void batchWritesOneEventPerEntryAndSetBasedUpdates() {
+        // 1/DAY exists already; 2/DAY is new and repeated later in the batch
+        when(jdbcRepository.findIds(anyList()))
+                .thenReturn(Map.of(new EntryKey(1L, DAY), 10L))
+                .thenReturn(Map.of(new EntryKey(1L, DAY), 10L, new EntryKey(2L, DAY), 11L));
+
+        listener.onBatch(List.of(reading("1", 4), reading("2", 2), reading("2", 3)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MoodEntryEvent>> events = ArgumentCaptor.forClass(List.class);
+        InOrder tx = inOrder(transactionManager, jdbcRepository, outboxService, dataVersionService, moodStatsService);
+        tx.verify(transactionManager).getTransaction(any());
+        tx.verify(jdbcRepository).upsertMultiRow(anyList());
+        tx.verify(outboxService).appendAll(events.capture());
+        // same lock order as the REST write path: mood_entries, mood_stats, users
+        tx.verify(moodStatsService).onEntriesUpserted(anyList());
+        tx.verify(dataVersionService).bumpAll(Set.of(1L, 2L));
+        tx.verify(transactionManager).commit(any());
+
+        List<MoodEntryEvent> written = events.getValue();
+        assertEquals(3, written.size());
+        assertEquals(MoodEntryEvent.Type.UPDATED, written.get(0).type());
+        assertEquals(10L, written.get(0).entryId());
+        assertEquals(MoodEntryEvent.Type.CREATED, written.get(1).type());
+        assertEquals(11L, written.get(1).entryId());
+        assertEquals(MoodEntryEvent.Type.UPDATED, written.get(2).type());
+        assertEquals(3, written.get(2).moodScore());
+        verify(moodStatsService, never()).recompute(any());
+    }
+
+    @Test
+    void disabledOutboxSkipsTheIdLookups() {
+        when(outboxService.isEnabled()).thenReturn(false);
+
+        listener.onBatch(List.of(reading("1", 4)));
+
+        verify(jdbcRepository).upsertMultiRow(anyList());
+        verify(jdbcRepository, never()).findIds(anyList());
+        verify(outboxService, never()).appendAll(anyList());
+        verify(dataVersionService).bumpAll(Set.of(1L));
+    }
+
+    private static ConsumerRecord<String, String> reading(String userId, int score) {
+        return new ConsumerRecord<>("mood-readings", 0, 0L, userId,
+                "{\"date\":\"" + DAY + "\",\"moodScore\":" + score + "}");
+    }
+}
@@ -0,0 +1,105 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.dto.MoodStatsResponse;
+import com.moodTracker.entity.MoodStats;
+import com.moodTracker.repository.MoodEntryJdbcRepository;
+import com.moodTracker.repository.MoodEntryJdbcRepository.UpsertRow;
+import com.moodTracker.repository.MoodEntryRepository;
+import com.moodTracker.repository.MoodEntryRepository.UserDayScore;
+import com.moodTracker.repository.MoodStatsRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MoodStatsServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final MoodStatsRepository statsRepo = mock(MoodStatsRepository.class);
+    private final MoodEntryRepository moodRepo = mock(MoodEntryRepository.class);
+    private final MoodStatsServiceImpl service =
+            new MoodStatsServiceImpl(statsRepo, moodRepo, mock(MoodEntryJdbcRepository.class));
+
+    @Test
+    void batchPatchesCurrentRowsAndRefillsStaleOnes() {
+        var current = RollingMoodStats.empty(TODAY);
+        current.set(TODAY.minusDays(1), 2);
+        MoodStats one = new MoodStats(1L, TODAY, current.days(), current.totals());
+        MoodStats two = new MoodStats(2L, TODAY, null, null);
+        MoodStats three = new MoodStats(3L, TODAY, null, null);
+        when(statsRepo.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+        when(statsRepo.findAllForUpdate(Set.of(1L, 2L, 3L))).thenReturn(List.of(one, two, three));
+        // mood_entries already holds the batch
+        when(moodRepo.findDayScoresForUsers(eq(List.of(2L, 3L)), any(), eq(TODAY))).thenReturn(List.of(
+                score(2L, TODAY.minusDays(3), 1), score(2L, TODAY, 4), score(3L, TODAY, 5)));
+
+        service.onEntriesUpserted(List.of(
+                new UpsertRow(2L, TODAY, 4, null),
+                new UpsertRow(1L, TODAY, 3, null),
+                new UpsertRow(3L, TODAY, 5, null),
+                new UpsertRow(1L, TODAY, 5, null)));
+
+        verify(statsRepo).insertIfMissing(3L, TODAY);
+        verify(statsRepo, never()).insertIfMissing(eq(1L), any());
+        verify(moodRepo, never()).findDayScores(anyLong(), any(), any());
+        assertEquals(List.of(5, 2), scores(one, 0, 1));
+        assertEquals(List.of(4, 0, 0, 1), scores(two, 0, 1, 2, 3));
+        assertEquals(List.of(5), scores(three, 0));
+        assertEquals(2, RollingMoodStats.window(TODAY, one.getWindowTotals(), 7).count());
+    }
+
+    @Test
+    void rowWrittenTodayIsReadFromItsTotals() {
+        var stats = RollingMoodStats.empty(TODAY);
+        stats.set(TODAY, 4);
+        stats.set(TODAY.minusDays(10), 2);
+        when(statsRepo.findById(1L)).thenReturn(Optional.of(new MoodStats(1L, TODAY, stats.days(), stats.totals())));
+
+        List<MoodStatsResponse> windows = service.getStats(1L);
+
+        assertEquals(List.of(1, 2, 2, 2), windows.stream().map(MoodStatsResponse::count).toList());
+        assertEquals(stats.window(30), service.getWindow(1L, 30));
+        verify(moodRepo, never()).findDayScores(anyLong(), any(), any());
+    }
+
+    @Test
+    void rowFromAnEarlierDaySlidesForward() {
+        LocalDate written = TODAY.minusDays(5);
+        var stats = RollingMoodStats.empty(written);
+        stats.set(written, 3);
+        stats.set(written.minusDays(3), 5);
+        when(statsRepo.findById(1L)).thenReturn(Optional.of(new MoodStats(1L, written, stats.days(), stats.totals())));
+
+        MoodStatsResponse week = service.getWindow(1L, 7);
+
+        assertEquals(TODAY.toString(), week.to());
+        assertEquals(1, week.count());
+        assertEquals(3, week.max());
+    }
+
+    private static List<Integer> scores(MoodStats row, int... daysAgo) {
+        return Arrays.stream(daysAgo).mapToObj(i -> (int) row.getDayScores()[i]).toList();
+    }
+
+    private static UserDayScore score(long userId, LocalDate date, int score) {
+        return new UserDayScore() {
+            @Override public Long getUserId() { return userId; }
+            @Override public LocalDate getEntryDate() { return date; }
+            @Override public int getMoodScore() { return score; }
+        };
+    }
+}
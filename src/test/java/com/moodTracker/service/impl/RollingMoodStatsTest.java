@@ -0,0 +1,166 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.dto.MoodStatsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RollingMoodStatsTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 15);
+
+    @Test
+    void addUpdatesCountsSumsAndExtremes() {
+        var stats = RollingMoodStats.empty(TODAY);
+        stats.set(TODAY, 4);
+        stats.set(TODAY.minusDays(1), 2);
+        stats.set(TODAY.minusDays(20), 5);
+
+        MoodStatsResponse week = stats.window(7);
+        assertEquals(2, week.count());
+        assertEquals(3.0, week.average());
+        assertEquals(1.0, week.stdDev());
+        assertEquals(2, week.min());
+        assertEquals(4, week.max());
+
+        MoodStatsResponse month = stats.window(30);
+        assertEquals(3, month.count());
+        assertEquals(3.7, month.average());
+        assertEquals(5, month.max());
+    }
+
+    @Test
+    void updateReplacesTheOldScore() {
+        var stats = RollingMoodStats.empty(TODAY);
+        stats.set(TODAY, 1);
+        stats.set(TODAY.minusDays(2), 3);
+
+        stats.set(TODAY, 5);
+
+        MoodStatsResponse week = stats.window(7);
+        assertEquals(2, week.count());
+        assertEquals(4.0, week.average());
+        assertEquals(3, week.min());
+        assertEquals(5, week.max());
+    }
+
+    @Test
+    void deleteRemovesTheDayAndItsExtreme() {
+        var stats = RollingMoodStats.empty(TODAY);
+        stats.set(TODAY, 1);
+        stats.set(TODAY.minusDays(1), 3);
+
+        stats.set(TODAY, 0);
+
+        MoodStatsResponse week = stats.window(7);
+        assertEquals(1, week.count());
+        assertEquals(3, week.min());
+        assertEquals(3, week.max());
+
+        stats.set(TODAY.minusDays(1), 0);
+        week = stats.window(7);
+        assertEquals(0, week.count());
+        assertEquals(0.0, week.average());
+        assertNull(week.min());
+        assertNull(week.max());
+    }
+
+    @Test
+    void settingTheSameScoreTwiceIsANoOp() {
+        var stats = RollingMoodStats.empty(TODAY);
+        stats.set(TODAY, 3);
+        stats.set(TODAY, 3);
+        stats.set(TODAY.minusDays(400), 5);
+
+        assertEquals(1, stats.window(365).count());
+    }
+
+    @Test
+    void advancingDropsDaysThatLeaveEachWindow() {
+        var stats = RollingMoodStats.empty(TODAY);
+        stats.set(TODAY.minusDays(7), 2);
+        stats.set(TODAY.minusDays(30), 4);
+
+        stats.advanceTo(TODAY.plusDays(1));
+
+        assertEquals(TODAY.plusDays(1).toString(), stats.window(7).to());
+        assertEquals(0, stats.window(7).count());
+        assertEquals(1, stats.window(30).count());
+        assertEquals(2, stats.window(90).count());
+
+        stats.advanceTo(TODAY.plusDays(400));
+        assertEquals(0, stats.window(365).count());
+    }
+
+    @Test
+    void streaksFollowTheDays() {
+        var stats = RollingMoodStats.empty(TODAY);
+        // yesterday and the two days before; today not logged yet
+        for (int i = 1; i <= 3; i++) stats.set(TODAY.minusDays(i), 3);
+        for (int i = 10; i <= 14; i++) stats.set(TODAY.minusDays(i), 3);
+
+        MoodStatsResponse month = stats.window(30);
+        assertEquals(3, month.currentStreak());
+        assertEquals(5, month.longestStreak());
+
+        stats.set(TODAY.minusDays(12), 0);
+        month = stats.window(30);
+        assertEquals(3, month.longestStreak());
+
+        stats.set(TODAY.minusDays(2), 0);
+        assertEquals(1, stats.window(30).currentStreak());
+    }
+
+    @Test
+    void incrementalMatchesRebuildAfterRandomWrites() {
+        var random = new Random(42);
+        var incremental = RollingMoodStats.empty(TODAY.minusDays(50));
+        Map<LocalDate, Integer> entries = new HashMap<>();
+
+        LocalDate day = TODAY.minusDays(50);
+        for (int step = 0; step < 5_000; step++) {
+            if (step % 100 == 0) {
+                day = day.plusDays(1);
+                incremental.advanceTo(day);
+            }
+            LocalDate date = day.minusDays(random.nextInt(RollingMoodStats.DAYS));
+            int score = random.nextInt(6);
+            incremental.set(date, score);
+            if (score == 0) entries.remove(date);
+            else entries.put(date, score);
+        }
+
+        var rebuilt = RollingMoodStats.empty(day);
+        entries.forEach(rebuilt::set);
+
+        assertArrayEquals(rebuilt.days(), incremental.days());
+        for (int w : RollingMoodStats.WINDOWS) {
+            assertEquals(rebuilt.window(w), incremental.window(w));
+        }
+    }
+
+    @Test
+    void storedTotalsReadBackTheSameWindows() {
+        var stats = RollingMoodStats.empty(TODAY);
+        for (int i = 0; i < 200; i += 3) stats.set(TODAY.minusDays(i), 1 + i % 5);
+        for (int i = 1; i <= 4; i++) stats.set(TODAY.minusDays(i), 4);
+
+        byte[] totals = stats.totals();
+        var restored = new RollingMoodStats(TODAY, stats.days(), totals);
+        for (int w : RollingMoodStats.WINDOWS) {
+            assertEquals(stats.window(w), RollingMoodStats.window(TODAY, totals, w));
+            assertEquals(stats.window(w), restored.window(w));
+        }
+
+        stats.advanceTo(TODAY.plusDays(40));
+        restored.advanceTo(TODAY.plusDays(40));
+        assertEquals(stats.window(90), restored.window(90));
+    }
+}
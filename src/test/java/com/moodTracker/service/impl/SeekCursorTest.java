@@ -0,0 +1,41 @@
+package com.moodTracker.service.impl;
+
+import com.moodTracker.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeekCursorTest {
+
+    @Test
+    void roundTrips() {
+        var cursor = new SeekCursor(LocalDate.of(2025, 12, 31), 9_007_199_254_740_993L);
+
+        assertEquals(cursor, SeekCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new SeekCursor(LocalDate.of(2026, 1, 1), 255).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void malformedTokensAreBadRequests() {
+        assertThrows(BadRequestException.class, () -> SeekCursor.decode("not base64!"));
+        assertThrows(BadRequestException.class, () -> SeekCursor.decode(encode("2026-01-01")));
+        assertThrows(BadRequestException.class, () -> SeekCursor.decode(encode("yesterday:12")));
+        assertThrows(BadRequestException.class, () -> SeekCursor.decode(encode("2026-01-01:twelve")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
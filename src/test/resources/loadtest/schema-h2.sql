@@ -0,0 +1,88 @@
+-- H2 (MySQL mode) equivalent of db/migration V1..V13, for the load-test harness
+CREATE TABLE IF NOT EXISTS users
+(
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    first_name   VARCHAR(100),
+    last_name    VARCHAR(100),
+    email        VARCHAR(255) NOT NULL UNIQUE,
+    password     VARCHAR(255),
+    enabled      BOOLEAN               DEFAULT TRUE,
+    role         VARCHAR(10)  NOT NULL DEFAULT 'USER',
+    data_version BIGINT       NOT NULL DEFAULT 0,
+    token_version         INT          NOT NULL DEFAULT 0,
+    tokens_invalid_before TIMESTAMP(6) NULL
+);
+
+CREATE TABLE IF NOT EXISTS mood_entries
+(
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id    BIGINT  NOT NULL,
+    entry_date DATE    NOT NULL,
+    mood_score TINYINT NOT NULL,
+    note       VARCHAR(1000),
+    CONSTRAINT fk_mood_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT uq_user_date UNIQUE (user_id, entry_date)
+);
+
+CREATE TABLE IF NOT EXISTS ai_analysis
+(
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id     BIGINT        NOT NULL,
+    average     DECIMAL(3, 1) NOT NULL,
+    summary     CLOB          NOT NULL,
+    suggestions CLOB          NOT NULL,
+    created_at  TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    data_version BIGINT       NULL,
+    CONSTRAINT fk_ai_analysis_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT uniq_ai_user UNIQUE (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens
+(
+    token_key  VARCHAR(80) NOT NULL PRIMARY KEY,
+    expires_at TIMESTAMP   NOT NULL,
+    revoked_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS mood_stats
+(
+    user_id       BIGINT         NOT NULL PRIMARY KEY,
+    as_of         DATE           NOT NULL,
+    day_scores    VARBINARY(366) NULL,
+    window_totals VARBINARY(56)  NULL,
+    CONSTRAINT fk_mood_stats_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS mood_entry_outbox
+(
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id    BIGINT       NOT NULL,
+    event_type VARCHAR(10)  NOT NULL,
+    payload    CLOB         NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+CREATE TABLE IF NOT EXISTS scheduled_jobs
+(
+    name              VARCHAR(64)  NOT NULL PRIMARY KEY,
+    locked_by         VARCHAR(255) NULL,
+    locked_until      TIMESTAMP(3) NULL,
+    checkpoint        BIGINT       NOT NULL DEFAULT 0,
+    last_completed_at TIMESTAMP(3) NULL
+);
+
+MERGE INTO scheduled_jobs (name) KEY (name) VALUES ('ai-precompute');
+MERGE INTO scheduled_jobs (name) KEY (name) VALUES ('outbox-relay');
+
+CREATE TABLE IF NOT EXISTS ai_jobs
+(
+    id           CHAR(36)      NOT NULL PRIMARY KEY,
+    user_id      BIGINT        NOT NULL,
+    job_type     VARCHAR(16)   NOT NULL,
+    status       VARCHAR(16)   NOT NULL,
+    result       CLOB          NULL,
+    error        VARCHAR(1000) NULL,
+    submitted_at TIMESTAMP(3)  NOT NULL,
+    finished_at  TIMESTAMP(3)  NULL,
+    CONSTRAINT fk_ai_jobs_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);